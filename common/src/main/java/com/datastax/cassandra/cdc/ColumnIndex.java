@@ -0,0 +1,88 @@
+package com.datastax.cassandra.cdc;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact index of the regular and static columns of a table, shared by the producers and the sources.
+ *
+ * Columns are indexed in name order, so that the producer and the source compute the same indexes from
+ * their own table metadata. The version is a 64-bit hash of the column names: indexes built from another
+ * set of columns, during a schema change, are ignored by the source.
+ */
+public class ColumnIndex {
+
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+    private final long version;
+
+    /**
+     * @param columnNames the internal names of the regular and static columns.
+     */
+    public ColumnIndex(Collection<String> columnNames) {
+        this.names = columnNames.toArray(new String[0]);
+        Arrays.sort(this.names);
+        this.indexes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+        this.version = version(names);
+    }
+
+    /**
+     * The first 8 bytes of the MD5 digest of the length-prefixed UTF-8 column names.
+     */
+    static long version(String[] names) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Return the index of a column, or -1 if unknown.
+     */
+    public int index(String columnName) {
+        Integer index = indexes.get(columnName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Return the column names of the given indexes built from the given version,
+     * or null if the version is missing or does not match, or an index is unknown.
+     */
+    public String[] names(Long columnsVersion, int[] columnIndexes) {
+        if (columnsVersion == null || columnsVersion != version || columnIndexes == null) {
+            return null;
+        }
+        String[] columnNames = new String[columnIndexes.length];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            if (columnIndexes[i] < 0 || columnIndexes[i] >= names.length) {
+                return null;
+            }
+            columnNames[i] = names[columnIndexes[i]];
+        }
+        return columnNames;
+    }
+}
@@ -25,4 +25,24 @@ public class MutationValue {
      * Optional mutated columns
      */
     String[] columns;
+
+    /**
+     * Optional {@link ColumnIndex} version of the mutated column indexes, nullable for the Avro schema compatibility
+     */
+    Long columnsVersion;
+
+    /**
+     * Optional mutated column indexes
+     */
+    int[] columnIndexes;
+
+    /**
+     * Optional serialized values of the mutated columns in the columnIndexes order,
+     * only set for an INSERT of a table in payload mode.
+     */
+    byte[][] columnValues;
+
+    public MutationValue(String md5Digest, UUID nodeId, String[] columns) {
+        this(md5Digest, nodeId, columns, null, null, null);
+    }
 }
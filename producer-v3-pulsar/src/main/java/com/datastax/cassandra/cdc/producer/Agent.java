@@ -3,6 +3,7 @@ package com.datastax.cassandra.cdc.producer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.cassandra.config.DatabaseDescriptor;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.instrument.Instrumentation;
 import java.util.concurrent.ExecutorService;
@@ -47,7 +48,7 @@ public class Agent {
         OffsetFileWriter offsetFileWriter = new OffsetFileWriter(DatabaseDescriptor.getCDCLogLocation());
         PulsarMutationSender pulsarMutationSender = new PulsarMutationSender();
         CommitLogReadHandlerImpl commitLogReadHandler = new CommitLogReadHandlerImpl(offsetFileWriter, pulsarMutationSender);
-        CommitLogTransfer commitLogTransfer = new BlackHoleCommitLogTransfer();
+        CommitLogTransfer commitLogTransfer = CommitLogTransfer.fromConfig(new File(DatabaseDescriptor.getCDCLogLocation()));
         CommitLogReaderProcessor commitLogReaderProcessor = new CommitLogReaderProcessor(commitLogReadHandler, offsetFileWriter, commitLogTransfer);
         CommitLogProcessor commitLogProcessor = new CommitLogProcessor(DatabaseDescriptor.getCDCLogLocation(), commitLogTransfer, offsetFileWriter, commitLogReaderProcessor);
 
@@ -65,6 +66,10 @@ public class Agent {
         ExecutorService commitLogReaderExecutor = Executors.newSingleThreadExecutor();
         commitLogReaderExecutor.submit(() -> {
             try {
+                if (PropertyConfig.pulsarPrewarmProducers) {
+                    pulsarMutationSender.prewarmProducers();
+                }
+
                 // continuously read commitlogs
                 commitLogReaderProcessor.initialize();
                 commitLogReaderProcessor.start();
@@ -1,6 +1,7 @@
 package com.datastax.cassandra.cdc.producer;
 
 import com.datastax.cassandra.cdc.MutationValue;
+import com.google.common.primitives.Ints;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.cassandra.config.CFMetaData;
 import org.apache.cassandra.config.ColumnDefinition;
@@ -17,10 +18,14 @@ import org.apache.pulsar.common.schema.SchemaInfo;
 import org.apache.pulsar.common.schema.SchemaType;
 
 import java.io.Closeable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -31,11 +36,18 @@ public class PulsarMutationSender implements MutationSender<CFMetaData> , AutoCl
     public static final String SCHEMA_DOC_PREFIX = "Primary key schema for table ";
 
     PulsarClient client;
-    final Map<String, Producer<?>> producers = new ConcurrentHashMap<>();
+    // producers being created or created, by topic name
+    final Map<String, CompletableFuture<Producer<?>>> producers = new ConcurrentHashMap<>();
+    // Pulsar schemas of the Cassandra native types, read-only once initialized
     final Map<String, Schema<?>> schemas = new HashMap<>();
+    // primary key schemas by table id, the primary key of a table cannot be altered
+    final Map<UUID, Schema<?>> keySchemas = new ConcurrentHashMap<>();
     final Map<String, SchemaType> schemaTypes = new HashMap<>();
     final GenericAvroSchema mutationValueSchema;
 
+    // flush pending batches early when tailing, null when adaptive batching is disabled.
+    final AdaptiveBatchFlusher batchFlusher;
+
     public PulsarMutationSender() {
         // Map Cassandra native types to Pulsar schemas
         schemas.put(UTF8Type.instance.asCQL3Type().toString(), Schema.STRING);
@@ -86,22 +98,26 @@ public class PulsarMutationSender implements MutationSender<CFMetaData> , AutoCl
         schemaTypes.put(TimeUUIDType.instance.asCQL3Type().toString(), SchemaType.STRING);
 
         this.mutationValueSchema = new GenericAvroSchema(AvroSchema.of(MutationValue.class).getSchemaInfo());
+        this.batchFlusher = PropertyConfig.pulsarAdaptiveBatchingEnabled
+                ? new AdaptiveBatchFlusher(PropertyConfig.pulsarBatchingMaxPublishDelayMs, PropertyConfig.maxInflightMutations,
+                        ReaderBacklog::isCatchingUp, this::flushProducers)
+                : null;
     }
 
     @SuppressWarnings("rawtypes")
     public Schema getKeySchema(final CFMetaData tm) {
-        String key = tm.ksName + "." + tm.cfName;
-        return schemas.computeIfAbsent(key, k -> {
+        return keySchemas.computeIfAbsent(tm.cfId, k -> {
+            String key = tm.ksName + "." + tm.cfName;
             List<ColumnDefinition> primaryKeyColumns = new ArrayList<>();
             tm.primaryKeyColumns().forEach(primaryKeyColumns::add);
             if (primaryKeyColumns.size() == 1) {
                 return schemas.get(primaryKeyColumns.get(0).type.asCQL3Type().toString());
             } else {
                 RecordSchemaBuilder schemaBuilder = SchemaBuilder
-                        .record(tm.ksName + "." + tm.cfName)
-                        .doc(SCHEMA_DOC_PREFIX + k);
+                        .record(key)
+                        .doc(SCHEMA_DOC_PREFIX + key);
                 int i = 0;
-                for(ColumnDefinition cm : primaryKeyColumns) {
+                for (ColumnDefinition cm : primaryKeyColumns) {
                     schemaBuilder
                             .field(cm.name.toString())
                             .type(schemaTypes.get(primaryKeyColumns.get(i++).type.asCQL3Type().toString()));
@@ -112,33 +128,108 @@ public class PulsarMutationSender implements MutationSender<CFMetaData> , AutoCl
         });
     }
 
-    @SuppressWarnings({"rawtypes","unchecked"})
-    public Producer getProducer(final CFMetaData tm) {
-        String topicName = PropertyConfig.topicPrefix + tm.ksName + "." + tm.cfName;
-        String producerName = "pulsar-producer-" + StorageService.instance.getLocalHostId();
-        return producers.compute(topicName, (k, v) -> {
-                if (v == null) {
-                    try {
-                        Schema<?> keyValueSchema = Schema.KeyValue(
-                                getKeySchema(tm),
-                                mutationValueSchema,
-                                KeyValueEncodingType.SEPARATED);
-                        Producer producer = client.newProducer(keyValueSchema)
-                                .producerName(producerName)
-                                .topic(topicName)
-                                .sendTimeout(15, TimeUnit.SECONDS)
-                                .maxPendingMessages(3)
-                                .hashingScheme(HashingScheme.Murmur3_32Hash)
-                                .batcherBuilder(BatcherBuilder.KEY_BASED)
-                                .create();
-                        log.info("Pulsar producer name={} created", producerName);
-                        return producer;
-                    } catch (Exception e) {
-                        log.error("unexpected error", e);
+    /**
+     * Producer and key schema of a table, held by its {@link TableContext}.
+     */
+    static class TableProducer {
+        final Schema<?> keySchema;
+        // set once the producer is created and the sends pending on its creation are submitted
+        volatile Producer<?> producer;
+        // last send pending on the producer creation, guarded by the TableProducer
+        CompletableFuture<Producer<?>> pendingSends;
+
+        TableProducer(Schema<?> keySchema) {
+            this.keySchema = keySchema;
+        }
+    }
+
+    public CompletableFuture<Producer<?>> getProducerAsync(final CFMetaData tm) {
+        return getProducerAsync(tm, PropertyConfig.topicPrefix + tm.ksName + "." + tm.cfName);
+    }
+
+    /**
+     * Return the producer of the table topic, created asynchronously on the first call.
+     * A failed creation is removed from the cache to be retried on the next call.
+     */
+    public CompletableFuture<Producer<?>> getProducerAsync(final CFMetaData tm, final String topicName) {
+        CompletableFuture<Producer<?>> future = producers.get(topicName);
+        if (future == null) {
+            CompletableFuture<Producer<?>> created = new CompletableFuture<>();
+            future = producers.putIfAbsent(topicName, created);
+            if (future == null) {
+                future = created;
+                createProducerAsync(tm, topicName).whenComplete((producer, error) -> {
+                    if (error != null) {
+                        log.error("Failed to create the pulsar producer for topic=" + topicName, error);
+                        producers.remove(topicName, created);
+                        created.completeExceptionally(error);
+                    } else {
+                        log.info("Pulsar producer name={} created", producer.getProducerName());
+                        created.complete(producer);
                     }
+                });
+            }
+        }
+        return future;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    CompletableFuture<Producer<?>> createProducerAsync(final CFMetaData tm, final String topicName) {
+        String producerName = "pulsar-producer-" + StorageService.instance.getLocalHostId() + topicName;
+        try {
+            Schema<?> keyValueSchema = Schema.KeyValue(
+                    getKeySchema(tm),
+                    mutationValueSchema,
+                    KeyValueEncodingType.SEPARATED);
+            return (CompletableFuture) client.newProducer(keyValueSchema)
+                    .producerName(producerName)
+                    .topic(topicName)
+                    .sendTimeout((int) PropertyConfig.pulsarSendTimeoutMs, TimeUnit.MILLISECONDS)
+                    .maxPendingMessages(PropertyConfig.pulsarMaxPendingMessages)
+                    .blockIfQueueFull(PropertyConfig.pulsarBlockIfQueueFull)
+                    .hashingScheme(HashingScheme.Murmur3_32Hash)
+                    .batcherBuilder(BatcherBuilder.KEY_BASED)
+                    .batchingMaxMessages(PropertyConfig.pulsarBatchingMaxMessages)
+                    .batchingMaxBytes(PropertyConfig.pulsarBatchingMaxBytes)
+                    .batchingMaxPublishDelay(batchFlusher != null
+                            ? PropertyConfig.pulsarAdaptiveBatchingMaxPublishDelayMs
+                            : PropertyConfig.pulsarBatchingMaxPublishDelayMs, TimeUnit.MILLISECONDS)
+                    .compressionType(CompressionType.valueOf(PropertyConfig.pulsarCompressionType.toUpperCase(Locale.ROOT)))
+                    .createAsync();
+        } catch (Exception e) {
+            CompletableFuture<Producer<?>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * Start the creation of the producers of all the CDC enabled tables, so that the first mutation
+     * of a table does not wait for its producer.
+     */
+    public void prewarmProducers() throws PulsarClientException {
+        if (this.client == null) {
+            initialize();
+        }
+        int count = 0;
+        for (String keyspace : org.apache.cassandra.config.Schema.instance.getNonSystemKeyspaces()) {
+            for (CFMetaData tm : org.apache.cassandra.config.Schema.instance.getKSMetaData(keyspace).tables) {
+                if (tm.params.cdc) {
+                    getProducerAsync(tm);
+                    count++;
                 }
-                return v;
-        });
+            }
+        }
+        log.info("Pre-warming {} pulsar producers", count);
+    }
+
+    void flushProducers() {
+        for (CompletableFuture<Producer<?>> future : producers.values()) {
+            Producer<?> producer = future.getNow(null);
+            if (producer != null) {
+                producer.flushAsync();
+            }
+        }
     }
 
     @Override
@@ -174,23 +265,112 @@ public class PulsarMutationSender implements MutationSender<CFMetaData> , AutoCl
         if (mutationValue.getColumns() != null && mutationValue.getColumns().length > 0 ) {
             genericRecordBuilder.set("columns", mutationValue.getColumns());
         }
+        if (mutationValue.getColumnIndexes() != null) {
+            genericRecordBuilder.set("columnsVersion", mutationValue.getColumnsVersion());
+            genericRecordBuilder.set("columnIndexes", Ints.asList(mutationValue.getColumnIndexes()));
+        }
+        if (mutationValue.getColumnValues() != null) {
+            List<ByteBuffer> columnValues = new ArrayList<>(mutationValue.getColumnValues().length);
+            for (byte[] value : mutationValue.getColumnValues()) {
+                columnValues.add(ByteBuffer.wrap(value));
+            }
+            genericRecordBuilder.set("columnValues", columnValues);
+        }
         return genericRecordBuilder.build();
     }
 
     @Override
-    @SuppressWarnings({"rawtypes","unchecked"})
+    @SuppressWarnings("rawtypes")
     public CompletionStage<MessageId> sendMutationAsync(final Mutation<CFMetaData> mutation) throws PulsarClientException {
         if (this.client == null) {
             initialize();
         }
-        Producer<?> producer = getProducer(mutation.getMetadata());
-        Schema keySchema = getKeySchema(mutation.getMetadata());
+        TableContext context = mutation.getTableContext();
+        TableProducer tableProducer = context.senderContext(c -> new TableProducer(getKeySchema(mutation.getMetadata())));
+        KeyValue<?, ?> keyValue = new KeyValue<>(
+                buildKey(tableProducer.keySchema, mutation.primaryKeyCells()),
+                buildValue(mutation.mutationValue()));
+        Producer<?> producer = tableProducer.producer;
+        if (producer != null) {
+            return send(producer, keyValue);
+        }
+        synchronized (tableProducer) {
+            if (tableProducer.producer != null) {
+                return send(tableProducer.producer, keyValue);
+            }
+            if (tableProducer.pendingSends != null && tableProducer.pendingSends.isCompletedExceptionally()) {
+                // the producer creation failed, retry it
+                tableProducer.pendingSends = null;
+            }
+            CompletableFuture<Producer<?>> producerFuture = tableProducer.pendingSends == null
+                    ? getProducerAsync(mutation.getMetadata(), context.topicName)
+                    : tableProducer.pendingSends;
+            producer = producerFuture.getNow(null);
+            if (producer != null && tableProducer.pendingSends == null) {
+                tableProducer.producer = producer;
+                return send(producer, keyValue);
+            }
+            return sendPending(tableProducer, producerFuture, keyValue);
+        }
+    }
+
+    /**
+     * Send once the producer is created, after the previous pending sends of the table.
+     * Pending sends are chained on one stage per table because the dependents of a CompletableFuture
+     * are not run in registration order. They are not run from the pulsar thread completing
+     * the producer creation, as a full queue blocks.
+     */
+    CompletableFuture<MessageId> sendPending(final TableProducer tableProducer,
+                                             final CompletableFuture<Producer<?>> previous,
+                                             final KeyValue<?, ?> keyValue) {
+        final CompletableFuture<MessageId> sent = new CompletableFuture<>();
+        final CompletableFuture<Producer<?>> pendingSend = previous.thenApplyAsync(p -> {
+            try {
+                send(p, keyValue).whenComplete((msgId, error) -> {
+                    if (error != null) {
+                        sent.completeExceptionally(error);
+                    } else {
+                        sent.complete(msgId);
+                    }
+                });
+            } catch (RuntimeException e) {
+                sent.completeExceptionally(e);
+            }
+            return p;
+        });
+        tableProducer.pendingSends = pendingSend;
+        pendingSend.whenComplete((p, error) -> {
+            if (error != null) {
+                sent.completeExceptionally(error);
+                return;
+            }
+            synchronized (tableProducer) {
+                // all the pending sends are submitted, following sends use the producer directly
+                if (tableProducer.pendingSends == pendingSend) {
+                    tableProducer.pendingSends = null;
+                    tableProducer.producer = p;
+                }
+            }
+        });
+        return sent;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    CompletableFuture<MessageId> send(Producer<?> producer, KeyValue<?, ?> keyValue) {
         TypedMessageBuilder messageBuilder = producer.newMessage();
-        return messageBuilder
-                .value(new KeyValue(
-                        buildKey(keySchema, mutation.primaryKeyCells()),
-                        buildValue(mutation.mutationValue())))
-                .sendAsync();
+        messageBuilder.value(keyValue);
+        if (batchFlusher == null) {
+            return messageBuilder.sendAsync();
+        }
+        batchFlusher.onSend();
+        CompletableFuture<MessageId> future;
+        try {
+            future = messageBuilder.sendAsync();
+        } catch (RuntimeException e) {
+            batchFlusher.onComplete();
+            throw e;
+        }
+        return future.whenComplete((msgId, error) -> batchFlusher.onComplete());
     }
 
     /**
@@ -240,6 +420,9 @@ public class PulsarMutationSender implements MutationSender<CFMetaData> , AutoCl
      */
     @Override
     public void close() {
+        if (batchFlusher != null) {
+            batchFlusher.close();
+        }
         try {
             this.client.close();
         } catch(PulsarClientException e) {
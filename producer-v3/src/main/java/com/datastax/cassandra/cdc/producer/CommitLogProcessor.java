@@ -14,6 +14,8 @@ import java.nio.file.Path;
 import java.nio.file.WatchEvent;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
@@ -30,8 +32,13 @@ public class CommitLogProcessor extends AbstractProcessor implements AutoCloseab
     private final CommitLogTransfer commitLogTransfer;
     private final File cdcDir;
     private final AbstractDirectoryWatcher newCommitLogWatcher;
+    private final CdcIndexScanner cdcIndexScanner;
+    private final AdaptivePollInterval pollInterval;
     private boolean initial = true;
 
+    // _cdc.idx files modified since the last submission, ordered by segment id
+    private final Set<File> modifiedCdcIdxFiles = new TreeSet<>(CommitLogUtil::compareCommitLogs);
+
     CommitLogReaderProcessor commitLogReaderProcessor;
     OffsetFileWriter offsetFileWriter;
 
@@ -56,12 +63,14 @@ public class CommitLogProcessor extends AbstractProcessor implements AutoCloseab
             void handleEvent(WatchEvent<?> event, Path path) throws IOException {
                 if (path.toString().endsWith(".log")) {
                     commitLogReaderProcessor.submitCommitLog(path.toFile());
-                }
-                if (path.toString().endsWith("_cdc.idx")) {
-                    commitLogReaderProcessor.submitCommitLog(path.toFile());
+                } else if (path.toString().endsWith("_cdc.idx")) {
+                    // a rewrite with the same size in the same mtime tick is only detected by the WatchService
+                    modifiedCdcIdxFiles.add(path.toFile());
                 }
             }
         };
+        this.cdcIndexScanner = new CdcIndexScanner(cdcDir);
+        this.pollInterval = new AdaptivePollInterval(PropertyConfig.cdcDirMinPollIntervalMs, PropertyConfig.cdcDirPollIntervalMs);
 
     }
 
@@ -83,6 +92,8 @@ public class CommitLogProcessor extends AbstractProcessor implements AutoCloseab
 
         // load existing commitlogs files when initializing
         if (initial) {
+            // record the initial state of the _cdc.idx files
+            cdcIndexScanner.scan();
             File[] commitLogFiles = CommitLogUtil.getCommitLogs(cdcDir);
             log.debug("Reading existing commit logs in {}, files={}", cdcDir, Arrays.asList(commitLogFiles));
             Arrays.sort(commitLogFiles, CommitLogUtil::compareCommitLogs);
@@ -109,8 +120,16 @@ public class CommitLogProcessor extends AbstractProcessor implements AutoCloseab
             initial = false;
         }
 
-        // collect new segment files
-        newCommitLogWatcher.poll();
+        // collect new segment files, wake up on events or after the poll interval
+        int events = newCommitLogWatcher.poll(Duration.ofMillis(pollInterval.get()));
+
+        // submit once the modified _cdc.idx files notified by the WatchService or detected by the stat scan
+        modifiedCdcIdxFiles.addAll(cdcIndexScanner.scan());
+        for (File file : modifiedCdcIdxFiles) {
+            commitLogReaderProcessor.submitCommitLog(file);
+        }
+        pollInterval.update(events > 0 || !modifiedCdcIdxFiles.isEmpty());
+        modifiedCdcIdxFiles.clear();
     }
 
     /**
@@ -0,0 +1,42 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.db.Keyspace;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.gms.FailureDetector;
+import org.apache.cassandra.utils.FBUtilities;
+
+import java.net.InetAddress;
+
+/**
+ * Elect one replica of a partition to publish its mutations.
+ *
+ * Replicas are taken in the order of the replication strategy, computed from the token ring and the same on
+ * all nodes, and the first one is the primary. With the fallback enabled, replicas marked down by gossip are
+ * skipped so that the next live replica publishes the mutations. While gossip converges, a mutation can still
+ * be published by two replicas, and the source deduplicates it.
+ */
+public class PrimaryReplicaFilter {
+
+    private final boolean fallback;
+
+    public PrimaryReplicaFilter(boolean fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * True when the local node publishes the mutations of the given partition token.
+     */
+    public boolean isPublisher(String keyspace, Token token) {
+        InetAddress localAddress = FBUtilities.getBroadcastAddress();
+        for (InetAddress endpoint : Keyspace.open(keyspace).getReplicationStrategy().getNaturalEndpoints(token)) {
+            if (endpoint.equals(localAddress)) {
+                return true;
+            }
+            if (!fallback || FailureDetector.instance.isAlive(endpoint)) {
+                return false;
+            }
+        }
+        // not a natural replica, e.g. during a range movement: publish rather than lose the mutation
+        return true;
+    }
+}
@@ -0,0 +1,238 @@
+package com.datastax.cassandra.cdc.producer;
+
+import com.datastax.cassandra.cdc.ColumnIndex;
+import io.debezium.DebeziumException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.config.Schema;
+import org.apache.cassandra.db.Clustering;
+import org.apache.cassandra.db.partitions.PartitionUpdate;
+import org.apache.cassandra.db.rows.Cell;
+import org.apache.cassandra.db.rows.ColumnData;
+import org.apache.cassandra.db.rows.Row;
+import org.apache.cassandra.service.StorageService;
+import org.apache.cassandra.utils.ByteBufferUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled decoder of the primary key columns of a table.
+ *
+ * Column names and types, and the {@link TableContext} shared by the mutations of the table,
+ * are resolved once per table schema. Decoders are cached by table id,
+ * and rebuilt when the schema version changes, as {@link CFMetaData} is updated in place on schema changes.
+ */
+@Slf4j
+public class TableKeyDecoder {
+    private static final Set<String> payloadTables = payloadTables();
+    private static final ConcurrentHashMap<UUID, TableKeyDecoder> decoders = new ConcurrentHashMap<>();
+
+    final CFMetaData tableMetadata;
+    final UUID schemaVersion;
+    final ColumnDefinition[] partitionKeyColumns;
+    final String[] partitionKeyNames;
+    final ColumnDefinition[] clusteringColumns;
+    final String[] clusteringNames;
+    final ColumnIndex columnIndex;
+    final boolean payloadMode;
+    final TableContext context;
+
+    TableKeyDecoder(CFMetaData tableMetadata, UUID schemaVersion) {
+        this.tableMetadata = tableMetadata;
+        this.schemaVersion = schemaVersion;
+        this.partitionKeyColumns = tableMetadata.partitionKeyColumns().toArray(new ColumnDefinition[0]);
+        this.partitionKeyNames = names(partitionKeyColumns);
+        this.clusteringColumns = tableMetadata.clusteringColumns().toArray(new ColumnDefinition[0]);
+        this.clusteringNames = names(clusteringColumns);
+        List<String> columnNames = new ArrayList<>();
+        for (ColumnDefinition cd : tableMetadata.partitionColumns()) {
+            columnNames.add(cd.name.toString());
+        }
+        this.columnIndex = new ColumnIndex(columnNames);
+        this.payloadMode = payloadTables.contains(tableMetadata.ksName)
+                || payloadTables.contains(tableMetadata.ksName + "." + tableMetadata.cfName);
+        this.context = new TableContext(DatabaseDescriptor.getClusterName(), StorageService.instance::getLocalHostUUID,
+                tableMetadata.ksName, tableMetadata.cfName);
+    }
+
+    /**
+     * Return the tables in payload mode. The emitted INSERT images are only ordered if the mutations
+     * of a key are sent one at a time by a single replica, so the payload mode is disabled when sending
+     * concurrent mutations or when all the replicas publish their mutations.
+     */
+    static Set<String> payloadTables() {
+        Set<String> tables = TableFilter.toSet(PropertyConfig.payloadTables);
+        if (!tables.isEmpty() && PropertyConfig.maxInflightMutations > 1) {
+            log.warn("Payload mode disabled for tables={}, it requires cdcMaxInflightMutations=1 to keep the mutations ordered, maxInflightMutations={}",
+                    tables, PropertyConfig.maxInflightMutations);
+            return Collections.emptySet();
+        }
+        if (!tables.isEmpty() && !PropertyConfig.primaryReplicaOnly) {
+            // every replica publishes its INSERT image, an older image may be received after a newer one
+            log.warn("Payload mode disabled for tables={}, it requires cdcPrimaryReplicaOnly=true so that a single replica publishes the INSERT images",
+                    tables);
+            return Collections.emptySet();
+        }
+        return tables;
+    }
+
+    private static String[] names(ColumnDefinition[] columns) {
+        String[] names = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].name.toString().intern();
+        }
+        return names;
+    }
+
+    /**
+     * Return the decoder of the table, built on the first use or after a schema change.
+     */
+    public static TableKeyDecoder of(CFMetaData tableMetadata) {
+        UUID schemaVersion = Schema.instance.getVersion();
+        TableKeyDecoder decoder = decoders.get(tableMetadata.cfId);
+        if (decoder == null || decoder.tableMetadata != tableMetadata || !Objects.equals(decoder.schemaVersion, schemaVersion)) {
+            decoder = new TableKeyDecoder(tableMetadata, schemaVersion);
+            decoders.put(tableMetadata.cfId, decoder);
+        }
+        return decoder;
+    }
+
+    /**
+     * Decode the partition key columns of a PartitionUpdate, cells are immutable and can be shared by all its rows.
+     */
+    public CellData[] decodePartitionKey(PartitionUpdate pu) {
+        CellData[] cells = new CellData[partitionKeyColumns.length];
+
+        // simple partition key
+        if (partitionKeyColumns.length == 1) {
+            cells[0] = partitionCell(0, pu.partitionKey().getKey());
+        }
+        else {
+            ByteBuffer keyBytes = pu.partitionKey().getKey().duplicate();
+
+            // 0xFFFF is reserved to encode "static column", skip if it exists at the start
+            if (keyBytes.remaining() >= 2) {
+                int header = ByteBufferUtil.getShortLength(keyBytes, keyBytes.position());
+                if ((header & 0xFFFF) == 0xFFFF) {
+                    ByteBufferUtil.readShortLength(keyBytes);
+                }
+            }
+
+            // the encoding of columns in the partition key byte buffer is
+            // <col><col><col>...
+            // where <col> is:
+            // <length of value><value><end-of-component byte>
+            // <length of value> is a 2 bytes unsigned short (excluding 0xFFFF used to encode "static columns")
+            // <end-of-component byte> should always be 0 for columns (1 for query bounds)
+            int i = 0;
+            while (keyBytes.remaining() > 0 && i < partitionKeyColumns.length) {
+                cells[i] = partitionCell(i, ByteBufferUtil.readBytesWithShortLength(keyBytes));
+                byte b = keyBytes.get();
+                if (b != 0) {
+                    break;
+                }
+                ++i;
+            }
+            for (int j = 0; j < cells.length; j++) {
+                if (cells[j] == null) {
+                    ColumnDefinition cd = partitionKeyColumns[j];
+                    throw new DebeziumException(String.format("Failed to populate Column %s with Type %s of Table %s in KeySpace %s.",
+                            partitionKeyNames[j], cd.type.toString(), cd.cfName, cd.ksName));
+                }
+            }
+        }
+        return cells;
+    }
+
+    private CellData partitionCell(int i, ByteBuffer bb) {
+        ColumnDefinition cd = partitionKeyColumns[i];
+        try {
+            return new CellData(partitionKeyNames[i], cd.type.compose(bb), null, CellData.ColumnType.PARTITION);
+        }
+        catch (Exception e) {
+            throw new DebeziumException(String.format("Failed to deserialize Column %s with Type %s in Table %s and KeySpace %s.",
+                    partitionKeyNames[i], cd.type.toString(), cd.cfName, cd.ksName), e);
+        }
+    }
+
+    /**
+     * Set the indexes of the regular and static columns of a row, null for a row without columns (a row deletion).
+     * When withValues is true and the table is in payload mode, also set the serialized cell values, unless
+     * a cell is a tombstone, a counter or a non-frozen collection the source cannot emit as is.
+     */
+    public void populateColumnIndexes(RowData after, Row row, boolean withValues) {
+        int[] indexes = new int[row.columnCount()];
+        byte[][] values = withValues && payloadMode ? new byte[indexes.length][] : null;
+        int i = 0;
+        for (ColumnData cd : row) {
+            int index = columnIndex.index(cd.column().name.toString());
+            if (index < 0) {
+                continue;
+            }
+            if (values != null) {
+                ColumnDefinition column = cd.column();
+                if (column.isComplex() || column.isCounterColumn() || ((Cell) cd).isTombstone()) {
+                    values = null;
+                } else {
+                    Cell cell = (Cell) cd;
+                    values[i] = ByteBufferUtil.getArray(cell.value());
+                }
+            }
+            indexes[i++] = index;
+        }
+        if (i == 0) {
+            after.setColumnIndexes(columnIndex.version(), null);
+            return;
+        }
+        if (i < indexes.length) {
+            indexes = Arrays.copyOf(indexes, i);
+            values = values == null ? null : Arrays.copyOf(values, i);
+        }
+        after.setColumnIndexes(columnIndex.version(), indexes);
+        if (values != null) {
+            after.setColumnValues(values);
+        }
+    }
+
+    /**
+     * Number of primary key columns, the positions of the partition key and clustering cells in the row.
+     */
+    public int primaryKeyColumnCount() {
+        return partitionKeyColumns.length + clusteringColumns.length;
+    }
+
+    /**
+     * Add the partition key and clustering columns to the row.
+     */
+    public void populatePrimaryKey(RowData after, CellData[] partitionKeyCells, Clustering clustering) {
+        for (int i = 0; i < partitionKeyCells.length; i++) {
+            after.setCell(i, partitionKeyCells[i]);
+        }
+        if (clustering != null) {
+            populateClustering(after, clustering);
+        }
+    }
+
+    private void populateClustering(RowData after, Clustering clustering) {
+        for (int i = 0; i < clusteringColumns.length; i++) {
+            try {
+                Object value = clustering.get(i);
+                after.setCell(partitionKeyColumns.length + i, new CellData(clusteringNames[i], value, null, CellData.ColumnType.CLUSTERING));
+            }
+            catch (Exception e) {
+                throw new DebeziumException(String.format("Failed to populate Column %s with Type %s of Table %s in KeySpace %s.",
+                        clusteringNames[i], clusteringColumns[i].type.toString(), tableMetadata.cfName, tableMetadata.ksName), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.db.commitlog.CommitLogPosition;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CommitLogReaderProcessorTests {
+
+    @Test
+    public final void testSubmittedSegmentIsSynced() {
+        CommitLogReaderProcessor processor = new CommitLogReaderProcessor(null, null, null);
+        assertEquals(new CommitLogPosition(0, 0), processor.syncedOffset());
+
+        // a segment in cdc_raw is complete, so it is synced up to the beginning of the next segment
+        processor.submitCommitLog(new File("CommitLog-6-5.log"));
+        assertEquals(new CommitLogPosition(6, 0), processor.syncedOffset());
+
+        // an older segment does not move the synced offset backward
+        processor.submitCommitLog(new File("CommitLog-6-3.log"));
+        assertEquals(new CommitLogPosition(6, 0), processor.syncedOffset());
+
+        processor.submitCommitLog(new File("CommitLog-6-8.log"));
+        assertEquals(new CommitLogPosition(9, 0), processor.syncedOffset());
+    }
+}
@@ -0,0 +1,79 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.db.Mutation;
+import org.apache.cassandra.db.commitlog.CommitLogDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode a commitlog mutation and send it, one mutation at a time, to an in-memory sender,
+ * covering the digest, the primary key decoding, the RowData building and the offset tracking.
+ * Run with the gc profiler to get the allocation rate per mutation:
+ * <pre>
+ * ./gradlew :producer-v4-bench:jmh
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommitLogReadHandlerBenchmark {
+
+    @Param({"SIMPLE_INSERT", "COMPOSITE_INSERT", "COMPOSITE_UPDATE", "WIDE_BATCH", "PARTITION_DELETION", "ROW_DELETION"})
+    SyntheticMutations.Kind kind;
+
+    @Param({"100"})
+    int rows;
+
+    Mutation mutation;
+    OffsetFileWriter offsetWriter;
+    InMemoryMutationSender sender;
+    CommitLogReadHandlerImpl handler;
+
+    long segmentId;
+    CommitLogDescriptor descriptor;
+    int entryLocation;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        mutation = new SyntheticMutations("ks1", 2, 16, 1).mutation(kind, rows);
+        offsetWriter = new OffsetFileWriter(Files.createTempDirectory("cdc-bench").toString());
+        sender = new InMemoryMutationSender();
+        handler = new CommitLogReadHandlerImpl(offsetWriter, sender);
+        segmentId = System.currentTimeMillis();
+        descriptor = SyntheticMutations.descriptor(segmentId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        offsetWriter.close();
+    }
+
+    @Benchmark
+    public long handleMutation() {
+        // mutations before the committed offset are skipped, move forward on each call
+        if (++entryLocation == Integer.MAX_VALUE) {
+            descriptor = SyntheticMutations.descriptor(++segmentId);
+            entryLocation = 1;
+        }
+        handler.handleMutation(mutation, 0, entryLocation, descriptor);
+        return sender.sentMutations;
+    }
+}
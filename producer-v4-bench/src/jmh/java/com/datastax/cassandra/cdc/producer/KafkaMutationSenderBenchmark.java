@@ -0,0 +1,93 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Kafka send throughput against an in-process broker stand-in that acknowledges the pending records after a fixed
+ * latency, with {@code inflight} records sent and not yet acknowledged, 1 being a blocking send.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaMutationSenderBenchmark {
+
+    static final int RECORDS = 1000;
+    static final long ACK_LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Param({"1", "64", "1024"})
+    int inflight;
+
+    MockProducer<byte[], byte[]> producer;
+    KafkaMutationSender sender;
+    List<ProducerRecord<byte[], byte[]>> records;
+    AtomicBoolean running;
+    Thread broker;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        producer = new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        sender = new KafkaMutationSender();
+        sender.kafkaProducer = producer;
+        records = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            records.add(new ProducerRecord<>("events-ks.table", Integer.toString(i).getBytes(), new byte[64]));
+        }
+        running = new AtomicBoolean(true);
+        broker = new Thread(() -> {
+            while (running.get()) {
+                long start = System.nanoTime();
+                while (System.nanoTime() - start < ACK_LATENCY_NANOS) {
+                    Thread.yield();
+                }
+                while (producer.completeNext()) {
+                    // ack all pending records, like a batch round-trip
+                }
+            }
+        }, "broker");
+        broker.setDaemon(true);
+        broker.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running.set(false);
+        broker.join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void send() throws InterruptedException {
+        Semaphore window = new Semaphore(inflight);
+        for (ProducerRecord<byte[], byte[]> record : records) {
+            window.acquire();
+            sender.send(record).whenComplete((r, e) -> window.release());
+        }
+        window.acquire(inflight);
+        producer.clear();
+    }
+}
@@ -0,0 +1,57 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.db.Mutation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compute the digest of a mutation with each algorithm, chosen by the cdcMutationDigest property of the forked JVM:
+ * <pre>
+ * ./gradlew :producer-v4-bench:jmh
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MutationDigestBenchmark {
+
+    @Param({"SIMPLE_INSERT", "COMPOSITE_INSERT", "WIDE_BATCH"})
+    SyntheticMutations.Kind kind;
+
+    @Param({"100"})
+    int rows;
+
+    Mutation mutation;
+
+    @Setup
+    public void setup() {
+        mutation = new SyntheticMutations("ks1", 2, 16, 1).mutation(kind, rows);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dcassandra.cdcMutationDigest=MD5"})
+    public String md5Digest() throws IOException {
+        return MutationDigest.digest(mutation);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dcassandra.cdcMutationDigest=MURMUR3_128"})
+    public String murmur3Digest() throws IOException {
+        return MutationDigest.digest(mutation);
+    }
+}
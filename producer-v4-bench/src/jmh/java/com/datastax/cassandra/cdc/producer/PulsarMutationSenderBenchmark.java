@@ -0,0 +1,72 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.schema.TableMetadata;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.schema.GenericRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build the Pulsar key and value of a decoded mutation, without a Pulsar client.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PulsarMutationSenderBenchmark {
+
+    @Param({"SIMPLE_INSERT", "COMPOSITE_INSERT"})
+    SyntheticMutations.Kind kind;
+
+    PulsarMutationSender sender;
+    Mutation<TableMetadata> mutation;
+    @SuppressWarnings("rawtypes")
+    Schema keySchema;
+    OffsetFileWriter offsetWriter;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        sender = new PulsarMutationSender();
+        // decode a mutation with the handler, keeping it rather than sending it
+        List<Mutation<TableMetadata>> mutations = new ArrayList<>();
+        offsetWriter = new OffsetFileWriter(Files.createTempDirectory("cdc-bench").toString());
+        CommitLogReadHandlerImpl handler = new CommitLogReadHandlerImpl(offsetWriter, mutations::add);
+        handler.handleMutation(new SyntheticMutations("ks1", 2, 16, 1).mutation(kind, 1), 0, 1, SyntheticMutations.descriptor(System.currentTimeMillis()));
+        mutation = mutations.get(0);
+        keySchema = sender.getKeySchema(mutation.getMetadata());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        offsetWriter.close();
+    }
+
+    @Benchmark
+    public Object buildKey() {
+        return sender.buildKey(keySchema, mutation.primaryKeyCells());
+    }
+
+    @Benchmark
+    public GenericRecord buildValue() {
+        return sender.buildValue(mutation.mutationValue());
+    }
+}
@@ -0,0 +1,67 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.db.Mutation;
+import org.apache.cassandra.db.partitions.PartitionUpdate;
+import org.apache.cassandra.db.rows.Row;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build the RowData of an inserted row as the handler does: decode the partition key, add the clustering
+ * columns and collect the mutated column indexes, with or without their values (payload mode).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowDataBuildBenchmark {
+
+    @Param({"SIMPLE_INSERT", "COMPOSITE_INSERT"})
+    SyntheticMutations.Kind kind;
+
+    PartitionUpdate partitionUpdate;
+    Row row;
+    TableKeyDecoder keyDecoder;
+
+    @Setup
+    public void setup() {
+        Mutation mutation = new SyntheticMutations("ks1", 2, 16, 1).mutation(kind, 1);
+        partitionUpdate = mutation.getPartitionUpdates().iterator().next();
+        row = partitionUpdate.iterator().next();
+        keyDecoder = TableKeyDecoder.of(partitionUpdate.metadata());
+    }
+
+    @Benchmark
+    public void columnIndexes(Blackhole blackhole) {
+        build(blackhole, false);
+    }
+
+    @Benchmark
+    public void columnValues(Blackhole blackhole) {
+        build(blackhole, true);
+    }
+
+    private void build(Blackhole blackhole, boolean withValues) {
+        CellData[] partitionKeyCells = keyDecoder.decodePartitionKey(partitionUpdate);
+        RowData after = RowData.acquire(keyDecoder.primaryKeyColumnCount());
+        keyDecoder.populatePrimaryKey(after, partitionKeyCells, row.clustering());
+        keyDecoder.populateColumnIndexes(after, row, withValues);
+        blackhole.consume(after.primaryKeyCells());
+        blackhole.consume(after.columnIndexes());
+        after.release();
+    }
+}
@@ -0,0 +1,178 @@
+package com.datastax.cassandra.cdc.producer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.cassandra.db.Mutation;
+import org.apache.cassandra.db.commitlog.CommitLogDescriptor;
+import org.apache.cassandra.io.util.DataOutputBuffer;
+import org.apache.cassandra.net.MessagingService;
+import org.apache.cassandra.utils.FBUtilities;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * Write Cassandra 4.x commitlog segments and their _cdc.idx files in a cdc_raw directory, as a node with CDC enabled does.
+ *
+ * Segments are pre-allocated and mutations are appended to the current section. A sync writes the section
+ * and then its sync marker, and updates the _cdc.idx file with the synced position. A full segment is
+ * completed and the next one created.
+ */
+@Slf4j
+public class CommitLogGenerator implements AutoCloseable {
+    static final int SYNC_MARKER_SIZE = 8;
+    static final int ENTRY_OVERHEAD_SIZE = 12;
+
+    private final File cdcDir;
+    private final int segmentSize;
+    private long nextSegmentId;
+
+    private CommitLogDescriptor descriptor;
+    private FileChannel channel;
+    // file position of the sync marker of the current section
+    private int markerPosition;
+    private final DataOutputBuffer section = new DataOutputBuffer();
+    private final DataOutputBuffer entry = new DataOutputBuffer();
+    private final CRC32 crc = new CRC32();
+
+    // sync time in nanoseconds of the synced sections, by segment id and section end position
+    private final Map<Long, ConcurrentSkipListMap<Integer, Long>> syncTimes = new ConcurrentHashMap<>();
+
+    private volatile long writtenBytes;
+    private volatile int segments;
+
+    public CommitLogGenerator(File cdcDir, long firstSegmentId, int segmentSize) {
+        this.cdcDir = cdcDir;
+        this.nextSegmentId = firstSegmentId;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Append a mutation to the current section, completing the segment if the mutation does not fit in.
+     */
+    public void write(Mutation mutation) throws IOException {
+        entry.clear();
+        Mutation.serializer.serialize(mutation, entry, MessagingService.current_version);
+        int size = entry.getLength();
+        if (channel != null && markerPosition + SYNC_MARKER_SIZE + section.getLength() + ENTRY_OVERHEAD_SIZE + size + SYNC_MARKER_SIZE > segmentSize) {
+            complete();
+        }
+        if (channel == null) {
+            create();
+        }
+
+        crc.reset();
+        FBUtilities.updateChecksumInt(crc, size);
+        section.writeInt(size);
+        section.writeInt((int) crc.getValue());
+        crc.update(entry.getData(), 0, size);
+        section.write(entry.getData(), 0, size);
+        section.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Write the current section and update the _cdc.idx file.
+     */
+    public void sync() throws IOException {
+        if (channel == null || section.getLength() == 0) {
+            return;
+        }
+        int nextMarker = markerPosition + SYNC_MARKER_SIZE + section.getLength();
+        // write the section before its marker, so that a concurrent reader never reads a partial section
+        write(ByteBuffer.wrap(section.getData(), 0, section.getLength()), markerPosition + SYNC_MARKER_SIZE);
+        ByteBuffer marker = ByteBuffer.allocate(SYNC_MARKER_SIZE);
+        writeSyncMarker(marker, descriptor.id, markerPosition, nextMarker);
+        marker.flip();
+        write(marker, markerPosition);
+        channel.force(false);
+        writtenBytes += section.getLength();
+        section.clear();
+        markerPosition = nextMarker;
+        writeCdcIndex(markerPosition, false);
+        syncTimes.get(descriptor.id).put(markerPosition, System.nanoTime());
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position() - start);
+        }
+    }
+
+    static void writeSyncMarker(ByteBuffer buffer, long segmentId, int filePosition, int nextMarker) {
+        CRC32 markerCrc = new CRC32();
+        FBUtilities.updateChecksumInt(markerCrc, (int) (segmentId & 0xFFFFFFFFL));
+        FBUtilities.updateChecksumInt(markerCrc, (int) (segmentId >>> 32));
+        FBUtilities.updateChecksumInt(markerCrc, filePosition);
+        buffer.putInt(nextMarker);
+        buffer.putInt((int) markerCrc.getValue());
+    }
+
+    private void create() throws IOException {
+        descriptor = new CommitLogDescriptor(nextSegmentId++, null, null);
+        channel = FileChannel.open(new File(cdcDir, descriptor.fileName()).toPath(),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(4096);
+        CommitLogDescriptor.writeHeader(header, descriptor);
+        header.flip();
+        markerPosition = header.remaining();
+        write(header, 0);
+        // segments are pre-allocated, a reader never sees the file growing and stops at the zeroed marker of the next section
+        write(ByteBuffer.allocate(1), segmentSize - 1);
+        syncTimes.put(descriptor.id, new ConcurrentSkipListMap<>());
+        writeCdcIndex(markerPosition, false);
+        segments++;
+        log.debug("Created commitlog segment={}", descriptor.fileName());
+    }
+
+    private void complete() throws IOException {
+        sync();
+        writeCdcIndex(markerPosition, true);
+        channel.close();
+        channel = null;
+    }
+
+    private void writeCdcIndex(int position, boolean completed) throws IOException {
+        try (FileWriter writer = new FileWriter(new File(cdcDir, descriptor.cdcIndexFileName()))) {
+            writer.write(String.valueOf(position));
+            if (completed) {
+                writer.write("\nCOMPLETED");
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * Return the time in nanoseconds when the given commitlog position was synced, or 0 if unknown.
+     */
+    public long syncTime(long segmentId, int position) {
+        ConcurrentSkipListMap<Integer, Long> sectionSyncTimes = syncTimes.get(segmentId);
+        if (sectionSyncTimes == null) {
+            return 0;
+        }
+        Map.Entry<Integer, Long> syncTime = sectionSyncTimes.ceilingEntry(position);
+        return syncTime == null ? 0 : syncTime.getValue();
+    }
+
+    public long writtenBytes() {
+        return writtenBytes;
+    }
+
+    public int segments() {
+        return segments;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            complete();
+        }
+    }
+}
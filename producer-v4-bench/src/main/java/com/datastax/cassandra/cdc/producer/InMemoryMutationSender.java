@@ -0,0 +1,24 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.schema.TableMetadata;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Sender acknowledging the mutations immediately, to measure the producer without a broker.
+ * The mutation value is built as a real sender would.
+ */
+public class InMemoryMutationSender implements MutationSender<TableMetadata> {
+    private static final CompletableFuture<Void> SENT = CompletableFuture.completedFuture(null);
+
+    long sentMutations;
+    long sentCells;
+
+    @Override
+    public CompletionStage<?> sendMutationAsync(Mutation<TableMetadata> mutation) {
+        sentMutations++;
+        sentCells += mutation.primaryKeyCells().size() + mutation.mutationValue().getColumns().length;
+        return SENT;
+    }
+}
@@ -0,0 +1,184 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.db.Mutation;
+import org.apache.cassandra.db.commitlog.CommitLogDescriptor;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.db.marshal.UUIDType;
+import org.apache.cassandra.db.partitions.PartitionUpdate;
+import org.apache.cassandra.db.rows.Row;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.schema.KeyspaceMetadata;
+import org.apache.cassandra.schema.KeyspaceParams;
+import org.apache.cassandra.schema.TableMetadata;
+import org.apache.cassandra.schema.TableParams;
+import org.apache.cassandra.schema.Tables;
+import org.apache.cassandra.service.StorageService;
+import org.apache.cassandra.utils.FBUtilities;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Synthetic CDC tables and mutations, built without a running Cassandra node.
+ *
+ * The simple table has a single partition key column, the composite table a composite partition key
+ * and a clustering column, both have a configurable number of text regular columns c0..cN.
+ */
+public class SyntheticMutations {
+
+    public enum Kind {
+        /**
+         * Insert of a row with a single partition key column.
+         */
+        SIMPLE_INSERT,
+
+        /**
+         * Insert of a row with a composite partition key and a clustering column.
+         */
+        COMPOSITE_INSERT,
+
+        /**
+         * Update, without primary key liveness info, of a row with a composite primary key.
+         */
+        COMPOSITE_UPDATE,
+
+        /**
+         * Batch of many rows in the same partition.
+         */
+        WIDE_BATCH,
+
+        /**
+         * Deletion of a partition without clustering columns.
+         */
+        PARTITION_DELETION,
+
+        /**
+         * Deletion of a row with a composite primary key.
+         */
+        ROW_DELETION
+    }
+
+    static {
+        DatabaseDescriptor.clientInitialization(false);
+        DatabaseDescriptor.setPartitionerUnsafe(Murmur3Partitioner.instance);
+        // derived from the commitlog segment size by a daemon initialization
+        DatabaseDescriptor.getRawConfig().max_mutation_size_in_kb = DatabaseDescriptor.getRawConfig().commitlog_segment_size_in_mb * 1024 / 2;
+        // TableContext reads the host id of the local node
+        StorageService.instance.getTokenMetadata().updateHostId(UUID.randomUUID(), FBUtilities.getBroadcastAddressAndPort());
+    }
+
+    public final String keyspace;
+    public final TableMetadata simpleTable;
+    public final TableMetadata compositeTable;
+    final String[] columns;
+    final String value;
+    final int partitions;
+
+    /**
+     * @param keyspace   the keyspace of the tables.
+     * @param columns    the number of regular columns.
+     * @param valueSize  the size of the regular column values.
+     * @param partitions the number of distinct partition keys, 1 to always write the same partition.
+     */
+    public SyntheticMutations(String keyspace, int columns, int valueSize, int partitions) {
+        this.keyspace = keyspace;
+        this.columns = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            this.columns[i] = "c" + i;
+        }
+        char[] chars = new char[valueSize];
+        Arrays.fill(chars, 'x');
+        this.value = new String(chars);
+        this.partitions = partitions;
+
+        TableMetadata.Builder simpleBuilder = TableMetadata.builder(keyspace, "simple")
+                .partitioner(Murmur3Partitioner.instance)
+                .params(TableParams.builder().cdc(true).build())
+                .addPartitionKeyColumn("id", Int32Type.instance);
+        TableMetadata.Builder compositeBuilder = TableMetadata.builder(keyspace, "composite")
+                .partitioner(Murmur3Partitioner.instance)
+                .params(TableParams.builder().cdc(true).build())
+                .addPartitionKeyColumn("id", UUIDType.instance)
+                .addPartitionKeyColumn("bucket", Int32Type.instance)
+                .addClusteringColumn("ts", LongType.instance);
+        for (String column : this.columns) {
+            simpleBuilder.addRegularColumn(column, UTF8Type.instance);
+            compositeBuilder.addRegularColumn(column, UTF8Type.instance);
+        }
+        this.simpleTable = simpleBuilder.build();
+        this.compositeTable = compositeBuilder.build();
+    }
+
+    /**
+     * Return the keyspace of the tables, to be loaded in the schema before reading their commitlogs.
+     */
+    public KeyspaceMetadata keyspaceMetadata() {
+        return KeyspaceMetadata.create(keyspace, KeyspaceParams.simple(1), Tables.of(simpleTable, compositeTable));
+    }
+
+    /**
+     * Build a mutation of the given kind, rows is the number of rows of a {@link Kind#WIDE_BATCH}.
+     */
+    public Mutation mutation(Kind kind, int rows) {
+        long timestamp = FBUtilities.timestampMicros();
+        int partition = partitions > 1 ? ThreadLocalRandom.current().nextInt(partitions) : 0;
+        UUID id = new UUID(0, partition);
+        switch (kind) {
+            case SIMPLE_INSERT: {
+                PartitionUpdate.SimpleBuilder builder = PartitionUpdate.simpleBuilder(simpleTable, partition).timestamp(timestamp);
+                addColumns(builder.row());
+                return new Mutation(builder.build());
+            }
+            case COMPOSITE_INSERT: {
+                PartitionUpdate.SimpleBuilder builder = PartitionUpdate.simpleBuilder(compositeTable, id, 1).timestamp(timestamp);
+                addColumns(builder.row(timestamp));
+                return new Mutation(builder.build());
+            }
+            case COMPOSITE_UPDATE: {
+                PartitionUpdate.SimpleBuilder builder = PartitionUpdate.simpleBuilder(compositeTable, id, 1).timestamp(timestamp);
+                addColumns(builder.row(timestamp).noPrimaryKeyLivenessInfo());
+                return new Mutation(builder.build());
+            }
+            case WIDE_BATCH: {
+                PartitionUpdate.SimpleBuilder builder = PartitionUpdate.simpleBuilder(compositeTable, id, 1).timestamp(timestamp);
+                for (long i = 0; i < rows; i++) {
+                    addColumns(builder.row(i));
+                }
+                return new Mutation(builder.build());
+            }
+            case PARTITION_DELETION:
+                return new Mutation(PartitionUpdate.simpleBuilder(simpleTable, partition).timestamp(timestamp).delete().build());
+            case ROW_DELETION: {
+                PartitionUpdate.SimpleBuilder builder = PartitionUpdate.simpleBuilder(compositeTable, id, 1).timestamp(timestamp);
+                builder.row(timestamp).delete();
+                return new Mutation(builder.build());
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported mutation kind " + kind);
+        }
+    }
+
+    private void addColumns(Row.SimpleBuilder row) {
+        for (String column : columns) {
+            row.add(column, value);
+        }
+    }
+
+    /**
+     * Return the number of CDC mutations sent by the agent for a mutation of the given kind.
+     */
+    public static int sentMutations(Kind kind, int rows) {
+        return kind == Kind.WIDE_BATCH ? rows : 1;
+    }
+
+    /**
+     * Return the descriptor of a commitlog segment holding the synthetic mutations.
+     */
+    public static CommitLogDescriptor descriptor(long segmentId) {
+        return new CommitLogDescriptor(segmentId, null, null);
+    }
+}
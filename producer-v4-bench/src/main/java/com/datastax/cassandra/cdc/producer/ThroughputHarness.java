@@ -0,0 +1,227 @@
+package com.datastax.cassandra.cdc.producer;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.cassandra.schema.Schema;
+import org.apache.cassandra.schema.TableMetadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline end-to-end throughput harness of the agent, without a Cassandra node nor a broker.
+ *
+ * A generator thread writes synthetic mutations in commitlog segments and _cdc.idx files of a temporary
+ * cdc_raw directory, while the {@link CommitLogProcessor} and {@link CommitLogReaderProcessor} of the agent read
+ * them and send the mutations to an in-memory {@link MutationSender}. Once all the mutations are acknowledged,
+ * the harness reports the mutations and commitlog bytes per second, the latency from the _cdc.idx sync
+ * to the acknowledgement of the mutations, and the GC activity.
+ *
+ * The harness is configured with system properties:
+ * <ul>
+ *     <li>bench.mutations: the number of commitlog mutations, default 100000</li>
+ *     <li>bench.mix: the weighted mutation kinds, default SIMPLE_INSERT:50,COMPOSITE_INSERT:20,COMPOSITE_UPDATE:20,ROW_DELETION:5,PARTITION_DELETION:5</li>
+ *     <li>bench.rows: the number of rows of a WIDE_BATCH, default 100</li>
+ *     <li>bench.columns, bench.valueSize, bench.partitions: the regular columns, their size and the distinct partition keys, default 4, 64 and 100000</li>
+ *     <li>bench.rate: the commitlog mutations written per second, 0 for unthrottled, default 0</li>
+ *     <li>bench.syncPeriodMs: the commitlog sync period, default 10ms</li>
+ *     <li>bench.segmentSizeMb: the commitlog segment size, default 32MB</li>
+ *     <li>bench.sender: the {@link MutationSender} class, default {@link InMemoryMutationSender}</li>
+ *     <li>bench.dir: the working directory, default a temporary directory</li>
+ *     <li>bench.timeoutSec: the maximum duration of the run, default 600s</li>
+ * </ul>
+ * The agent properties apply as well, for instance -Dcassandra.cdcPoolIntervalMs to tune the detection latency.
+ */
+@Slf4j
+public class ThroughputHarness {
+
+    /**
+     * Sender recording the latency of the mutations sent by a delegate sender.
+     */
+    static class LatencyRecordingSender implements MutationSender<TableMetadata> {
+        final MutationSender<TableMetadata> delegate;
+        final CommitLogGenerator generator;
+        final Histogram latencies = new Histogram(new UniformReservoir(1 << 16));
+        final LongAdder sentMutations = new LongAdder();
+        volatile long lastSentNanos;
+
+        LatencyRecordingSender(MutationSender<TableMetadata> delegate, CommitLogGenerator generator) {
+            this.delegate = delegate;
+            this.generator = generator;
+        }
+
+        @Override
+        public void initialize() throws Exception {
+            delegate.initialize();
+        }
+
+        @Override
+        public CompletionStage<?> sendMutationAsync(Mutation<TableMetadata> mutation) throws Exception {
+            final CommitLogPosition position = mutation.getCommitLogPosition();
+            return delegate.sendMutationAsync(mutation).whenComplete((result, error) -> {
+                if (error == null) {
+                    long now = System.nanoTime();
+                    long syncTime = generator.syncTime(position.segmentId, position.position);
+                    if (syncTime > 0) {
+                        latencies.update(TimeUnit.NANOSECONDS.toMicros(now - syncTime));
+                    }
+                    lastSentNanos = now;
+                    sentMutations.increment();
+                }
+            });
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        File dir = System.getProperty("bench.dir") == null
+                ? Files.createTempDirectory("cdc-harness").toFile()
+                : new File(System.getProperty("bench.dir"));
+        File cdcDir = new File(dir, "cdc_raw");
+        if (!cdcDir.mkdirs() && !cdcDir.isDirectory()) {
+            throw new IOException("Cannot create the directory " + cdcDir);
+        }
+        // set before the agent reads its configuration
+        if (System.getProperty(PropertyConfig.PROPERTY_PREFIX + "cdcRelocationDir") == null) {
+            System.setProperty(PropertyConfig.PROPERTY_PREFIX + "cdcRelocationDir", new File(dir, "cdc_backup").getAbsolutePath());
+        }
+
+        long mutations = Long.getLong("bench.mutations", 100000L);
+        List<SyntheticMutations.Kind> mix = parseMix(System.getProperty("bench.mix",
+                "SIMPLE_INSERT:50,COMPOSITE_INSERT:20,COMPOSITE_UPDATE:20,ROW_DELETION:5,PARTITION_DELETION:5"));
+        int rows = Integer.getInteger("bench.rows", 100);
+        long rate = Long.getLong("bench.rate", 0L);
+        long syncPeriodNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("bench.syncPeriodMs", 10L));
+        int segmentSize = Integer.getInteger("bench.segmentSizeMb", 32) * 1024 * 1024;
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(Long.getLong("bench.timeoutSec", 600L));
+
+        SyntheticMutations synthetic = new SyntheticMutations("bench",
+                Integer.getInteger("bench.columns", 4),
+                Integer.getInteger("bench.valueSize", 64),
+                Integer.getInteger("bench.partitions", 100000));
+        Schema.instance.load(synthetic.keyspaceMetadata());
+
+        @SuppressWarnings("unchecked")
+        MutationSender<TableMetadata> sender = (MutationSender<TableMetadata>) Class.forName(
+                System.getProperty("bench.sender", InMemoryMutationSender.class.getName())).getDeclaredConstructor().newInstance();
+        CommitLogGenerator generator = new CommitLogGenerator(cdcDir, System.currentTimeMillis(), segmentSize);
+        LatencyRecordingSender recordingSender = new LatencyRecordingSender(sender, generator);
+        recordingSender.initialize();
+
+        OffsetFileWriter offsetFileWriter = new OffsetFileWriter(cdcDir.getAbsolutePath());
+        CommitLogReadHandlerImpl commitLogReadHandler = new CommitLogReadHandlerImpl(offsetFileWriter, recordingSender);
+        CommitLogTransfer commitLogTransfer = new BlackHoleCommitLogTransfer();
+        CommitLogReaderProcessor commitLogReaderProcessor = new CommitLogReaderProcessor(commitLogReadHandler, offsetFileWriter, commitLogTransfer);
+        CommitLogProcessor commitLogProcessor = new CommitLogProcessor(cdcDir.getAbsolutePath(), commitLogTransfer, offsetFileWriter, commitLogReaderProcessor);
+
+        log.info("Running the harness in dir={} mutations={} mix={} rate={} sender={}",
+                dir, mutations, System.getProperty("bench.mix", "default"), rate, sender.getClass().getName());
+        long gcCount = gcCount();
+        long gcTimeMs = gcTimeMs();
+        long start = System.nanoTime();
+
+        // same threads as the agent
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        executor.submit(() -> {
+            commitLogProcessor.initialize();
+            commitLogProcessor.start();
+            return null;
+        });
+        executor.submit(() -> {
+            commitLogReaderProcessor.awaitSyncedPosition();
+            commitLogReaderProcessor.initialize();
+            commitLogReaderProcessor.start();
+            return null;
+        });
+
+        long expected = 0;
+        long lastSync = start;
+        for (long i = 0; i < mutations; i++) {
+            SyntheticMutations.Kind kind = mix.get(ThreadLocalRandom.current().nextInt(mix.size()));
+            generator.write(synthetic.mutation(kind, rows));
+            expected += SyntheticMutations.sentMutations(kind, rows);
+            long now = System.nanoTime();
+            if (now - lastSync >= syncPeriodNanos) {
+                generator.sync();
+                lastSync = now;
+            }
+            if (rate > 0) {
+                long delay = start + i * TimeUnit.SECONDS.toNanos(1) / rate - now;
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+            }
+        }
+        generator.close();
+        long generated = System.nanoTime();
+
+        while (recordingSender.sentMutations.sum() < expected && System.nanoTime() - start < timeoutNanos) {
+            Thread.sleep(10);
+        }
+        long end = recordingSender.lastSentNanos;
+        commitLogProcessor.stop();
+        commitLogReaderProcessor.stop();
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        commitLogReaderProcessor.close();
+        offsetFileWriter.close();
+
+        long sent = recordingSender.sentMutations.sum();
+        double seconds = Math.max(1, end - start) / 1e9;
+        Snapshot latencies = recordingSender.latencies.getSnapshot();
+        System.out.println(String.format(Locale.ROOT, "commitlog: mutations=%d segments=%d bytes=%d generated in %.3fs",
+                mutations, generator.segments(), generator.writtenBytes(), (generated - start) / 1e9));
+        System.out.println(String.format(Locale.ROOT, "sent: mutations=%d/%d in %.3fs, %.0f mutations/s, %.0f bytes/s",
+                sent, expected, seconds, sent / seconds, generator.writtenBytes() / seconds));
+        System.out.println(String.format(Locale.ROOT, "idx-to-send latency: p50=%.3fms p99=%.3fms max=%.3fms",
+                latencies.getMedian() / 1000, latencies.get99thPercentile() / 1000, latencies.getMax() / 1000.0));
+        System.out.println(String.format(Locale.ROOT, "gc: collections=%d time=%dms",
+                gcCount() - gcCount, gcTimeMs() - gcTimeMs));
+        System.exit(sent < expected ? 1 : 0);
+    }
+
+    static List<SyntheticMutations.Kind> parseMix(String mix) {
+        List<SyntheticMutations.Kind> kinds = new ArrayList<>();
+        for (String weightedKind : mix.split(",")) {
+            String[] parts = weightedKind.trim().split(":");
+            SyntheticMutations.Kind kind = SyntheticMutations.Kind.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                kinds.add(kind);
+            }
+        }
+        if (kinds.isEmpty()) {
+            throw new IllegalArgumentException("Empty mutation mix");
+        }
+        return kinds;
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    static long gcTimeMs() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -2,6 +2,7 @@ package com.datastax.cassandra.cdc.producer;
 
 import com.datastax.cassandra.cdc.MutationValue;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
 import io.confluent.connect.avro.AvroConverter;
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
 import io.debezium.data.Uuid;
@@ -17,9 +18,9 @@ import org.apache.cassandra.service.StorageService;
 import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.cassandra.utils.FBUtilities;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
@@ -47,9 +48,7 @@ public class KafkaMutationSender implements MutationSender<TableMetadata> , Auto
     final Converter valueConverter;
     final Converter keyConverter;
 
-    KafkaProducer<?, ?> kafkaProducer; // lazy init
-
-    final Executor executor = Executors.newFixedThreadPool(1);
+    Producer<byte[], byte[]> kafkaProducer; // lazy init
 
     KafkaMutationSender() {
         // Map Cassandra native types to Kafka schemas
@@ -95,6 +94,9 @@ public class KafkaMutationSender implements MutationSender<TableMetadata> , Auto
                 .field("md5Digest", Schema.STRING_SCHEMA)
                 .field("nodeId", Schema.STRING_SCHEMA)
                 .field("columns", SchemaBuilder.array(Schema.STRING_SCHEMA).optional().build())
+                .field("columnsVersion", Schema.OPTIONAL_INT64_SCHEMA)
+                .field("columnIndexes", SchemaBuilder.array(Schema.INT32_SCHEMA).optional().build())
+                .field("columnValues", SchemaBuilder.array(Schema.BYTES_SCHEMA).optional().build())
                 .build();
         log.debug("Avro mutation valueSchema={}", valueSchema);
     }
@@ -124,14 +126,28 @@ public class KafkaMutationSender implements MutationSender<TableMetadata> , Auto
     @Override
     public void initialize() throws Exception {
         String producerName = "kafka-producer-" + StorageService.instance.getLocalHostId();
+        Properties props = producerConfig(producerName);
+        this.kafkaProducer = new KafkaProducer<>(props);
+        log.info("Kafka producer name={} created with config={}", producerName, props);
+    }
+
+    static Properties producerConfig(String producerName) {
         Properties props = new Properties();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, PropertyConfig.kafkaBrokers);
         props.put(ProducerConfig.CLIENT_ID_CONFIG, producerName);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, org.apache.kafka.common.serialization.ByteArraySerializer.class.getName());
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, org.apache.kafka.common.serialization.ByteArraySerializer.class.getName());
         //props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, CustomPartitioner.class.getName());
-        this.kafkaProducer = new KafkaProducer<>(props);
-        log.info("Kafka producer name={} created", producerName);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, Integer.toString(PropertyConfig.kafkaLingerMs));
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, Integer.toString(PropertyConfig.kafkaBatchSize));
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, PropertyConfig.kafkaCompressionType);
+        props.put(ProducerConfig.ACKS_CONFIG, PropertyConfig.kafkaAcks);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, Boolean.toString(PropertyConfig.kafkaEnableIdempotence));
+        if (!PropertyConfig.kafkaEnableIdempotence) {
+            // a retried batch must not be written after a newer batch of the same partition
+            props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, "1");
+        }
+        return props;
     }
 
     Object buildKey(Schema keySchema, List<CellData> primaryKey) {
@@ -153,30 +169,46 @@ public class KafkaMutationSender implements MutationSender<TableMetadata> , Auto
                 .put("nodeId", mutationValue.getNodeId().toString());
         if (mutationValue.getColumns() != null)
             struct.put("columns", Arrays.asList(mutationValue.getColumns()));
+        if (mutationValue.getColumnIndexes() != null) {
+            struct.put("columnsVersion", mutationValue.getColumnsVersion());
+            struct.put("columnIndexes", Ints.asList(mutationValue.getColumnIndexes()));
+        }
+        if (mutationValue.getColumnValues() != null)
+            struct.put("columnValues", Arrays.asList(mutationValue.getColumnValues()));
         return struct;
     }
 
     @Override
-    @SuppressWarnings({"rawtypes","unchecked"})
     public CompletionStage<Void> sendMutationAsync(final Mutation<TableMetadata> mutation) throws Exception {
-        Schema keySchema = getKeySchema(mutation.getMetadata());
-        String topicName = PropertyConfig.topicPrefix + mutation.getMetadata().keyspace + "." + mutation.getMetadata().name;
+        TableContext context = mutation.getTableContext();
+        Schema keySchema = context.senderContext(c -> getKeySchema(mutation.getMetadata()));
+        String topicName = context.topicName;
         byte[] serializedKey = keyConverter.fromConnectData(topicName, keySchema, buildKey(keySchema, mutation.primaryKeyCells()));
         byte[] serializedValue = valueConverter.fromConnectData(topicName, valueSchema, buildValue(mutation.mutationValue()));
-        ProducerRecord record = new ProducerRecord(topicName, serializedKey, serializedValue);
+        ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(topicName, serializedKey, serializedValue);
         log.debug("Sending kafka record={}", record);
 
         if (kafkaProducer == null) {
             initialize(); // lazy init
         }
-        return CompletableFuture.runAsync(() -> {
-            try {
-                RecordMetadata metadata = (RecordMetadata) kafkaProducer.send(record).get();
+        return send(record);
+    }
+
+    /**
+     * Send a record without blocking, the returned future is completed by the producer callback
+     * so records are batched by the producer rather than sent one at a time.
+     */
+    CompletableFuture<Void> send(ProducerRecord<byte[], byte[]> record) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        kafkaProducer.send(record, (metadata, exception) -> {
+            if (exception != null) {
+                future.completeExceptionally(exception);
+            } else {
                 log.debug("Message sent metadata={}", metadata);
-            } catch (InterruptedException | ExecutionException e) {
-                throw new IllegalStateException(e);
+                future.complete(null);
             }
-        }, executor);
+        });
+        return future;
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asynchronous sends against a {@link MockProducer} acknowledged by the test.
+ */
+public class KafkaMutationSenderTests {
+
+    static final int RECORDS = 1000;
+
+    static ProducerRecord<byte[], byte[]> record(int i) {
+        return new ProducerRecord<>("events-ks.table", Integer.toString(i).getBytes(), new byte[64]);
+    }
+
+    @Test
+    public final void testRecordsPendingBeforeFirstAck() {
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        KafkaMutationSender sender = new KafkaMutationSender();
+        sender.kafkaProducer = producer;
+
+        // all records are handed to the producer without waiting for an ack
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            futures[i] = sender.send(record(i));
+        }
+        assertEquals(RECORDS, producer.history().size());
+        for (CompletableFuture<?> future : futures) {
+            assertFalse(future.isDone());
+        }
+
+        // the producer callbacks complete the futures in send order
+        assertTrue(producer.completeNext());
+        assertTrue(futures[0].isDone());
+        assertFalse(futures[1].isDone());
+        while (producer.completeNext()) {
+            // ack all pending records
+        }
+        for (CompletableFuture<?> future : futures) {
+            assertTrue(future.isDone());
+            assertFalse(future.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    public final void testSendError() {
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        KafkaMutationSender sender = new KafkaMutationSender();
+        sender.kafkaProducer = producer;
+        CompletableFuture<Void> future = sender.send(record(0));
+        producer.errorNext(new IllegalStateException("broker down"));
+        assertThrows(Exception.class, future::join);
+    }
+
+    @Test
+    public final void testOrderedProducerConfig() {
+        Properties props = KafkaMutationSender.producerConfig("producer");
+        assertEquals(Boolean.toString(PropertyConfig.kafkaEnableIdempotence), props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        if (!PropertyConfig.kafkaEnableIdempotence) {
+            assertEquals("1", props.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+        }
+    }
+
+    @Test
+    public final void testNoLingerWithBlockingSend() {
+        Properties props = KafkaMutationSender.producerConfig("producer");
+        if (PropertyConfig.maxInflightMutations == 1 && System.getProperty("kafkaLingerMs") == null) {
+            assertEquals("0", props.get(ProducerConfig.LINGER_MS_CONFIG));
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.datastax.cassandra.cdc.producer;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import org.apache.cassandra.metrics.DefaultNameFactory;
 import org.apache.cassandra.metrics.MetricNameFactory;
+import org.apache.cassandra.schema.TableId;
+import org.apache.cassandra.schema.TableMetadata;
+
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.cassandra.metrics.CassandraMetricsRegistry.Metrics;
 
@@ -11,4 +17,30 @@ public class CdcMetrics {
 
     public static final Counter sentMutations = Metrics.counter(factory.createMetricName("SentMutations"));
     public static final Counter sentErrors = Metrics.counter(factory.createMetricName("SentErrors"));
+
+    public static final Counter inflightMutations = Metrics.counter(factory.createMetricName("InflightMutations"));
+    public static final Gauge<Integer> maxInflightMutations = Metrics.register(factory.createMetricName("MaxInflightMutations"),
+            (Gauge<Integer>) () -> PropertyConfig.maxInflightMutations);
+
+    public static final Counter sendRetries = Metrics.counter(factory.createMetricName("SendRetries"));
+    // time in milliseconds the commitlog reader spent waiting for the sink to recover
+    public static final Counter sendBlockedTime = Metrics.counter(factory.createMetricName("SendBlockedTime"));
+    // 0=closed, 1=open, 2=half-open
+    public static final Gauge<Integer> circuitBreakerState = Metrics.register(factory.createMetricName("CircuitBreakerState"),
+            (Gauge<Integer>) () -> CommitLogReadHandlerImpl.sinkCircuitBreaker.state().ordinal());
+
+    // partition updates published or suppressed by the primary replica election
+    public static final Counter publishedReplicaMutations = Metrics.counter(factory.createMetricName("PublishedReplicaMutations"));
+    public static final Counter suppressedReplicaMutations = Metrics.counter(factory.createMetricName("SuppressedReplicaMutations"));
+
+    // delay in milliseconds between a _cdc.idx update and its detection
+    public static final Histogram detectionLatency = Metrics.histogram(factory.createMetricName("DetectionLatency"), false);
+
+    // mutations of the tables skipped by the table filter, by table
+    private static final ConcurrentHashMap<TableId, Counter> skippedMutations = new ConcurrentHashMap<>();
+
+    public static Counter skippedMutations(TableMetadata tm) {
+        return skippedMutations.computeIfAbsent(tm.id, id ->
+                Metrics.counter(new DefaultNameFactory("CdcProducer", tm.keyspace + "." + tm.name).createMetricName("SkippedMutations")));
+    }
 }
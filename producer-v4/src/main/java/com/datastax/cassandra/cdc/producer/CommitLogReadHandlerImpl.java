@@ -8,34 +8,34 @@ package com.datastax.cassandra.cdc.producer;
 import com.datastax.cassandra.cdc.producer.exceptions.CassandraConnectorSchemaException;
 import com.datastax.cassandra.cdc.producer.exceptions.CassandraConnectorTaskException;
 import io.debezium.DebeziumException;
+import io.debezium.function.BlockingConsumer;
 import io.debezium.time.Conversions;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.cassandra.config.DatabaseDescriptor;
-import org.apache.cassandra.cql3.ColumnSpecification;
 import org.apache.cassandra.db.LivenessInfo;
 import org.apache.cassandra.db.commitlog.CommitLogDescriptor;
 import org.apache.cassandra.db.commitlog.CommitLogReadHandler;
 import org.apache.cassandra.db.marshal.AbstractType;
-import org.apache.cassandra.db.marshal.ValueAccessor;
 import org.apache.cassandra.db.partitions.PartitionUpdate;
 import org.apache.cassandra.db.rows.Row;
 import org.apache.cassandra.db.rows.Unfiltered;
 import org.apache.cassandra.db.rows.UnfilteredRowIterator;
-import org.apache.cassandra.io.util.DataOutputBuffer;
-import org.apache.cassandra.net.MessagingService;
 import org.apache.cassandra.schema.ColumnMetadata;
+import org.apache.cassandra.schema.TableId;
 import org.apache.cassandra.schema.TableMetadata;
-import org.apache.cassandra.service.StorageService;
-import org.apache.cassandra.utils.ByteBufferUtil;
-import org.apache.commons.codec.digest.DigestUtils;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.datastax.cassandra.cdc.producer.CommitLogReadHandlerImpl.RowType.DELETE;
+import static com.datastax.cassandra.cdc.producer.CommitLogReadHandlerImpl.RowType.INSERT;
 
 /**
  * Handler that implements {@link CommitLogReadHandler} interface provided by Cassandra source code.
@@ -51,15 +51,87 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
     private final MutationMaker<TableMetadata> mutationMaker;
     private final MutationSender<TableMetadata> mutationSender;
     private final OffsetFileWriter offsetWriter;
+    private final BlockingConsumer<Mutation<TableMetadata>> mutationConsumer;
+
+    // bounded window of in-flight mutations, null when sending one mutation at a time.
+    private final SendWindow sendWindow;
+    // rows of the acknowledged windowed sends, released to the row pool by the reader thread
+    private final Queue<RowData> acknowledgedRows = new ConcurrentLinkedQueue<>();
+    // decoding handlers do not pool the rows, as the decoded mutations are sent by another thread
+    private final boolean pooledRows;
+    private final ScheduledExecutorService retryExecutor;
+
+    // the sink is shared by all the sending handlers
+    static final CircuitBreaker sinkCircuitBreaker = new CircuitBreaker(
+            PropertyConfig.circuitBreakerFailureThreshold, PropertyConfig.circuitBreakerOpenDurationMs);
+    private final CircuitBreaker circuitBreaker;
+    private final ExponentialBackoff backoff = new ExponentialBackoff(
+            PropertyConfig.retryInitialBackoffMs, PropertyConfig.retryMaxBackoffMs);
+
+    // tables accepted by the include/exclude lists, by table id
+    static final TableFilter tableFilter = TableFilter.fromConfig();
+    static final boolean tableFilterEnabled = !tableFilter.acceptAll();
+    static final ConcurrentHashMap<TableId, Boolean> acceptedTables = new ConcurrentHashMap<>();
+
+    // publish only the mutations of the partitions this node is elected for, null when all replicas publish
+    static final PrimaryReplicaFilter primaryReplicaFilter = PropertyConfig.primaryReplicaOnly
+            ? new PrimaryReplicaFilter(PropertyConfig.primaryReplicaFallback)
+            : null;
 
     AtomicReference<CommitLogPosition> sentOffset =
             new AtomicReference<>(new com.datastax.cassandra.cdc.producer.CommitLogPosition(0,0));
 
     CommitLogReadHandlerImpl(OffsetFileWriter offsetFileWriter,
                              MutationSender<TableMetadata> mutationSender) {
+        this(offsetFileWriter, mutationSender, PropertyConfig.maxInflightMutations, sinkCircuitBreaker);
+    }
+
+    CommitLogReadHandlerImpl(OffsetFileWriter offsetFileWriter,
+                             MutationSender<TableMetadata> mutationSender,
+                             int maxInflightMutations,
+                             CircuitBreaker circuitBreaker) {
         this.mutationSender = mutationSender;
         this.mutationMaker = new MutationMaker<TableMetadata>();
         this.offsetWriter = offsetFileWriter;
+        this.circuitBreaker = circuitBreaker;
+        this.pooledRows = true;
+        if (maxInflightMutations > 1) {
+            this.sendWindow = new SendWindow(maxInflightMutations, offsetFileWriter);
+            this.retryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "mutation-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.mutationConsumer = this::windowedSend;
+        } else {
+            this.sendWindow = null;
+            this.retryExecutor = null;
+            this.mutationConsumer = this::blockingSend;
+        }
+    }
+
+    /**
+     * Handler collecting the decoded mutations rather than sending them, used to decode segments in parallel.
+     */
+    CommitLogReadHandlerImpl(OffsetFileWriter offsetFileWriter,
+                             BlockingConsumer<Mutation<TableMetadata>> decodedMutations) {
+        this.mutationSender = null;
+        this.mutationMaker = new MutationMaker<>();
+        this.offsetWriter = offsetFileWriter;
+        this.circuitBreaker = sinkCircuitBreaker;
+        this.pooledRows = false;
+        this.sendWindow = null;
+        this.retryExecutor = null;
+        this.mutationConsumer = decodedMutations;
+    }
+
+    /**
+     * Stop the retry executor, pending retries are dropped.
+     */
+    public void close() {
+        if (retryExecutor != null) {
+            retryExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -206,20 +278,39 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
             return;
         }
 
-        for (PartitionUpdate pu : mutation.getPartitionUpdates()) {
-            com.datastax.cassandra.cdc.producer.CommitLogPosition entryPosition =
-                    new com.datastax.cassandra.cdc.producer.CommitLogPosition(CommitLogUtil.extractTimestamp(descriptor.fileName()), entryLocation);
+        // skip the filtered tables before computing the digest and decoding the rows
+        if (tableFilterEnabled && !acceptAnyTable(mutation)) {
+            return;
+        }
 
-            if (offsetWriter.offset().compareTo(entryPosition) > 0) {
-                log.debug("Mutation at {} for table {}.{} already processed, skipping...",
-                        entryPosition, pu.metadata().keyspace, pu.metadata().name);
-                return;
-            }
+        // all the partition updates of a mutation share the same commitlog position and digest
+        com.datastax.cassandra.cdc.producer.CommitLogPosition entryPosition =
+                new com.datastax.cassandra.cdc.producer.CommitLogPosition(CommitLogUtil.extractTimestamp(descriptor.fileName()), entryLocation);
+
+        if (offsetWriter.offset().compareTo(entryPosition) > 0) {
+            log.debug("Mutation at {} for keyspace {} already processed, skipping...",
+                    entryPosition, mutation.getKeyspaceName());
+            return;
+        }
 
+        String md5Digest;
+        try {
+            md5Digest = MutationDigest.digest(mutation);
+        }
+        catch (Exception e) {
+            throw new DebeziumException(String.format("Failed to compute the digest of mutation at %s for keyspace %s.",
+                    entryPosition.toString(), mutation.getKeyspaceName()), e);
+        }
+
+        for (PartitionUpdate pu : mutation.getPartitionUpdates()) {
+            if (tableFilterEnabled && !acceptTable(pu.metadata())) {
+                skipTable(pu.metadata());
+                continue;
+            }
+            if (primaryReplicaFilter != null && !isPublisher(pu)) {
+                continue;
+            }
             try {
-                DataOutputBuffer dataOutputBuffer = new DataOutputBuffer();
-                org.apache.cassandra.db.Mutation.serializer.serialize(mutation, dataOutputBuffer, MessagingService.VERSION_40);
-                String md5Digest = DigestUtils.md5Hex(dataOutputBuffer.getData());
                 process(pu, entryPosition, md5Digest);
             }
             catch (Exception e) {
@@ -229,6 +320,41 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
         }
     }
 
+    boolean acceptAnyTable(org.apache.cassandra.db.Mutation mutation) {
+        for (PartitionUpdate pu : mutation.getPartitionUpdates()) {
+            if (acceptTable(pu.metadata())) {
+                return true;
+            }
+        }
+        for (PartitionUpdate pu : mutation.getPartitionUpdates()) {
+            skipTable(pu.metadata());
+        }
+        return false;
+    }
+
+    static boolean acceptTable(TableMetadata tm) {
+        Boolean accepted = acceptedTables.get(tm.id);
+        if (accepted == null) {
+            accepted = tableFilter.accept(tm.keyspace, tm.name);
+            acceptedTables.put(tm.id, accepted);
+            log.info("CDC table {}.{} accepted={}", tm.keyspace, tm.name, accepted);
+        }
+        return accepted;
+    }
+
+    static void skipTable(TableMetadata tm) {
+        CdcMetrics.skippedMutations(tm).inc();
+    }
+
+    static boolean isPublisher(PartitionUpdate pu) {
+        if (primaryReplicaFilter.isPublisher(pu.metadata().keyspace, pu.partitionKey().getToken())) {
+            CdcMetrics.publishedReplicaMutations.inc();
+            return true;
+        }
+        CdcMetrics.suppressedReplicaMutations.inc();
+        return false;
+    }
+
     @Override
     public void handleUnrecoverableError(CommitLogReadException exception) throws IOException {
         log.error("Unrecoverable error when reading commit log", exception);
@@ -259,9 +385,13 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
             return;
         }
 
+        // decode the partition key once for all the rows
+        TableKeyDecoder keyDecoder = TableKeyDecoder.of(pu.metadata());
+        CellData[] partitionKeyCells = keyDecoder.decodePartitionKey(pu);
+
         switch (partitionType) {
             case PARTITION_KEY_ROW_DELETION:
-                handlePartitionDeletion(pu, position, md5Digest);
+                handlePartitionDeletion(pu, keyDecoder, partitionKeyCells, position, md5Digest);
                 break;
 
             case ROW_LEVEL_MODIFICATION:
@@ -275,7 +405,7 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
                     }
                     Row row = (Row) rowOrRangeTombstone;
 
-                    handleRowModifications(row, rowType, pu, position, md5Digest);
+                    handleRowModifications(row, rowType, pu, keyDecoder, partitionKeyCells, position, md5Digest);
                 }
                 break;
 
@@ -296,12 +426,13 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
      *          b. populate regular columns with null values
      *      (4) Assemble a {@link Mutation} object from the populated data and queue the record
      */
-    private void handlePartitionDeletion(PartitionUpdate pu, com.datastax.cassandra.cdc.producer.CommitLogPosition offsetPosition, String md5Digest) {
+    private void handlePartitionDeletion(PartitionUpdate pu, TableKeyDecoder keyDecoder, CellData[] partitionKeyCells,
+                                         com.datastax.cassandra.cdc.producer.CommitLogPosition offsetPosition, String md5Digest) {
         try {
 
-            RowData after = new RowData();
+            RowData after = pooledRows ? RowData.acquire(keyDecoder.primaryKeyColumnCount()) : new RowData(keyDecoder.primaryKeyColumnCount());
 
-            populatePartitionColumns(after, pu);
+            keyDecoder.populatePrimaryKey(after, partitionKeyCells, null);
 
             /*
             // For partition deletions, the PartitionUpdate only specifies the partition key, it does not
@@ -323,10 +454,9 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
             }
             */
 
-            mutationMaker.delete(DatabaseDescriptor.getClusterName(), StorageService.instance.getLocalHostUUID(), offsetPosition,
-                    pu.metadata().keyspace, pu.metadata().name, false,
+            mutationMaker.delete(keyDecoder.context, offsetPosition, false,
                     Conversions.toInstantFromMicros(pu.maxTimestamp()), after,
-                    MARK_OFFSET, this::blockingSend, md5Digest, pu.metadata());
+                    MARK_OFFSET, this.mutationConsumer, md5Digest, pu.metadata());
         }
         catch (Exception e) {
             log.error("Fail to send delete partition at {}. Reason: {}", offsetPosition, e);
@@ -347,33 +477,32 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
      *          d. for deletions, populate regular columns with null values
      *      (4) Assemble a {@link Mutation} object from the populated data and queue the record
      */
-    private void handleRowModifications(Row row, RowType rowType, PartitionUpdate pu,
+    private void handleRowModifications(Row row, RowType rowType, PartitionUpdate pu, TableKeyDecoder keyDecoder, CellData[] partitionKeyCells,
                                         com.datastax.cassandra.cdc.producer.CommitLogPosition offsetPosition, String md5Digest) {
 
-        RowData after = new RowData();
-        populatePartitionColumns(after, pu);
-        populateClusteringColumns(after, row, pu);
+        RowData after = pooledRows ? RowData.acquire(keyDecoder.primaryKeyColumnCount()) : new RowData(keyDecoder.primaryKeyColumnCount());
+        keyDecoder.populatePrimaryKey(after, partitionKeyCells, row.clustering());
         //populateRegularColumns(after, row, rowType);
+        if (rowType != DELETE) {
+            keyDecoder.populateColumnIndexes(after, row, rowType == INSERT);
+        }
 
         long ts = rowType == DELETE ? row.deletion().time().markedForDeleteAt() : pu.maxTimestamp();
 
         switch (rowType) {
             case INSERT:
-                mutationMaker.insert(DatabaseDescriptor.getClusterName(), StorageService.instance.getLocalHostUUID(), offsetPosition,
-                        pu.metadata().keyspace, pu.metadata().name, false,
-                        Conversions.toInstantFromMicros(ts), after, MARK_OFFSET, this::blockingSend, md5Digest, pu.metadata());
+                mutationMaker.insert(keyDecoder.context, offsetPosition, false,
+                        Conversions.toInstantFromMicros(ts), after, MARK_OFFSET, this.mutationConsumer, md5Digest, pu.metadata());
                 break;
 
             case UPDATE:
-                mutationMaker.update(DatabaseDescriptor.getClusterName(), StorageService.instance.getLocalHostUUID(), offsetPosition,
-                        pu.metadata().keyspace, pu.metadata().name, false,
-                        Conversions.toInstantFromMicros(ts), after, MARK_OFFSET, this::blockingSend, md5Digest, pu.metadata());
+                mutationMaker.update(keyDecoder.context, offsetPosition, false,
+                        Conversions.toInstantFromMicros(ts), after, MARK_OFFSET, this.mutationConsumer, md5Digest, pu.metadata());
                 break;
 
             case DELETE:
-                mutationMaker.delete(DatabaseDescriptor.getClusterName(), StorageService.instance.getLocalHostUUID(), offsetPosition,
-                        pu.metadata().keyspace, pu.metadata().name, false,
-                        Conversions.toInstantFromMicros(ts), after, MARK_OFFSET, this::blockingSend, md5Digest, pu.metadata());
+                mutationMaker.delete(keyDecoder.context, offsetPosition, false,
+                        Conversions.toInstantFromMicros(ts), after, MARK_OFFSET, this.mutationConsumer, md5Digest, pu.metadata());
                 break;
 
             default:
@@ -381,39 +510,6 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
         }
     }
 
-    private void populatePartitionColumns(RowData after, PartitionUpdate pu) {
-        List<Object> partitionKeys = getPartitionKeys(pu);
-        for (ColumnMetadata cd : pu.metadata().partitionKeyColumns()) {
-            try {
-                String name = cd.name.toString();
-                Object value = partitionKeys.get(cd.position());
-                CellData cellData = new CellData(name, value, null, CellData.ColumnType.PARTITION);
-                after.addCell(cellData);
-            }
-            catch (Exception e) {
-                throw new DebeziumException(String.format("Failed to populate Column %s with Type %s of Table %s in KeySpace %s.",
-                        cd.name.toString(), cd.type.toString(), cd.cfName, cd.ksName), e);
-            }
-        }
-    }
-
-    @SuppressWarnings({"unchecked","rawtypes"})
-    private void populateClusteringColumns(RowData after, Row row, PartitionUpdate pu) {
-        for (ColumnMetadata cd : pu.metadata().clusteringColumns()) {
-            try {
-                String name = cd.name.toString();
-                ValueAccessor valueAccessor = row.clustering().accessor();
-                Object value = cd.type.compose(valueAccessor.toBuffer(row.clustering().get(cd.position())));
-                CellData cellData = new CellData(name, value, null, CellData.ColumnType.CLUSTERING);
-                after.addCell(cellData);
-            }
-            catch (Exception e) {
-                throw new DebeziumException(String.format("Failed to populate Column %s with Type %s of Table %s in KeySpace %s.",
-                        cd.name.toString(), cd.type.toString(), cd.cfName, cd.ksName), e);
-            }
-        }
-    }
-
     /*
     private void populateRegularColumns(RowData after, Row row, RowType rowType) {
         if (rowType == INSERT || rowType == UPDATE) {
@@ -458,73 +554,7 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
     }
     */
 
-    /**
-     * Given a PartitionUpdate, deserialize the partition key byte buffer
-     * into a list of partition key values.
-     */
-    @SuppressWarnings("checkstyle:magicnumber")
-    private static List<Object> getPartitionKeys(PartitionUpdate pu) {
-        List<Object> values = new ArrayList<>();
-
-        List<ColumnMetadata> columnDefinitions = pu.metadata().partitionKeyColumns();
-
-        // simple partition key
-        if (columnDefinitions.size() == 1) {
-            ByteBuffer bb = pu.partitionKey().getKey();
-            ColumnSpecification cs = columnDefinitions.get(0);
-            AbstractType<?> type = cs.type;
-            try {
-                Object value = type.compose(bb);
-                values.add(value);
-            }
-            catch (Exception e) {
-                throw new DebeziumException(String.format("Failed to deserialize Column %s with Type %s in Table %s and KeySpace %s.",
-                        cs.name.toString(), cs.type.toString(), cs.cfName, cs.ksName), e);
-            }
-        }
-        else {
-            ByteBuffer keyBytes = pu.partitionKey().getKey().duplicate();
-
-            // 0xFFFF is reserved to encode "static column", skip if it exists at the start
-            if (keyBytes.remaining() >= 2) {
-                int header = ByteBufferUtil.getShortLength(keyBytes, keyBytes.position());
-                if ((header & 0xFFFF) == 0xFFFF) {
-                    ByteBufferUtil.readShortLength(keyBytes);
-                }
-            }
-
-            // the encoding of columns in the partition key byte buffer is
-            // <col><col><col>...
-            // where <col> is:
-            // <length of value><value><end-of-component byte>
-            // <length of value> is a 2 bytes unsigned short (excluding 0xFFFF used to encode "static columns")
-            // <end-of-component byte> should always be 0 for columns (1 for query bounds)
-            // this section reads the bytes for each column and deserialize into objects based on each column type
-            int i = 0;
-            while (keyBytes.remaining() > 0 && i < columnDefinitions.size()) {
-                ColumnSpecification cs = columnDefinitions.get(i);
-                AbstractType<?> type = cs.type;
-                ByteBuffer bb = ByteBufferUtil.readBytesWithShortLength(keyBytes);
-                try {
-                    Object value = type.compose(bb);
-                    values.add(value);
-                }
-                catch (Exception e) {
-                    throw new DebeziumException(String.format("Failed to deserialize Column %s with Type %s in Table %s and KeySpace %s",
-                            cs.name.toString(), cs.type.toString(), cs.cfName, cs.ksName), e);
-                }
-                byte b = keyBytes.get();
-                if (b != 0) {
-                    break;
-                }
-                ++i;
-            }
-        }
-
-        return values;
-    }
-
-    public void blockingSend(Mutation<TableMetadata> mutation) {
+    public void blockingSend(Mutation<TableMetadata> mutation) throws InterruptedException {
         com.datastax.cassandra.cdc.producer.CommitLogPosition sentOffset = offsetWriter.offset();
         long seg = sentOffset.segmentId;
         int pos = sentOffset.position;
@@ -537,22 +567,116 @@ public class CommitLogReadHandlerImpl implements CommitLogReadHandler {
 
         log.debug("Sending mutation={}", mutation);
 
+        int attempt = 0;
         while(true) {
+            awaitCircuitBreaker();
             try {
                 processMutation(mutation).toCompletableFuture().get();
+                circuitBreaker.onSuccess();
+                // acknowledged and no longer referenced, the row is reused by the next mutations of this reader
+                mutation.getRowData().release();
                 break;
+            } catch(InterruptedException e) {
+                throw e;
             } catch(Exception e) {
-                log.error("failed to send message to pulsar:", e);
+                circuitBreaker.onFailure();
                 CdcMetrics.sentErrors.inc();
-                try {
-                    Thread.sleep(10000);
-                } catch(InterruptedException interruptedException) {
-                }
+                CdcMetrics.sendRetries.inc();
+                long delay = backoff.delayMs(attempt++);
+                log.warn("Failed to send mutation at position={} attempt={}, retrying in {}ms:", mutation.getCommitLogPosition(), attempt, delay, e);
+                Thread.sleep(delay);
+                CdcMetrics.sendBlockedTime.inc(delay);
             }
         }
     }
 
-    // TODO: add exponential retry
+    /**
+     * Wait while the circuit breaker is open, pausing the commitlog reader until the sink recovers.
+     */
+    void awaitCircuitBreaker() throws InterruptedException {
+        long blocked = circuitBreaker.acquire();
+        CdcMetrics.sendBlockedTime.inc(blocked);
+    }
+
+    /**
+     * Send a mutation without waiting for its acknowledgement, blocking only when the window is full.
+     * The offset is committed by the {@link SendWindow} once all the previous mutations are acknowledged.
+     *
+     * The window slot is acquired before the circuit breaker: a half-open breaker lets one probe through,
+     * and the probe must be a send that is actually issued, not a reader blocked on a window full of retries.
+     */
+    public void windowedSend(Mutation<TableMetadata> mutation) throws InterruptedException {
+        assert mutation != null : "Unexpected null mutation";
+        RowData acknowledgedRow;
+        while ((acknowledgedRow = acknowledgedRows.poll()) != null) {
+            acknowledgedRow.release();
+        }
+        SendWindow.Slot slot = sendWindow.acquire(mutation.getCommitLogPosition());
+        awaitCircuitBreaker();
+        CdcMetrics.inflightMutations.inc();
+        log.debug("Sending mutation={} inflight={}", mutation, sendWindow.inflight());
+        asyncSend(mutation, slot, 0);
+    }
+
+    void asyncSend(final Mutation<TableMetadata> mutation, final SendWindow.Slot slot, final int attempt) {
+        CompletionStage<?> future;
+        try {
+            future = this.mutationSender.sendMutationAsync(mutation);
+        } catch(Exception e) {
+            CompletableFuture<?> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            future = failed;
+        }
+        future.whenComplete((msgId, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess();
+                CdcMetrics.sentMutations.inc();
+                CdcMetrics.inflightMutations.dec();
+                sendWindow.ack(slot);
+                // acknowledged on a sender thread, the row is released by the reader thread that acquired it
+                acknowledgedRows.offer(mutation.getRowData());
+            } else {
+                // a retried mutation may be delivered after younger ones, this is harmless as the source reads back the row.
+                circuitBreaker.onFailure();
+                CdcMetrics.sentErrors.inc();
+                CdcMetrics.sendRetries.inc();
+                long delay = backoff.delayMs(attempt);
+                log.warn("Failed to send mutation at position={} attempt={}, retrying in {}ms:", mutation.getCommitLogPosition(), attempt + 1, delay, error);
+                retryExecutor.schedule(() -> retrySend(mutation, slot, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Retry a send once the circuit breaker lets it through, so that retries do not hammer an unavailable sink.
+     */
+    void retrySend(final Mutation<TableMetadata> mutation, final SendWindow.Slot slot, final int attempt) {
+        try {
+            awaitCircuitBreaker();
+        } catch (InterruptedException e) {
+            log.warn("Retry of mutation at position={} interrupted", mutation.getCommitLogPosition());
+            Thread.currentThread().interrupt();
+            return;
+        }
+        asyncSend(mutation, slot, attempt);
+    }
+
+    /**
+     * Send a mutation decoded by another handler.
+     */
+    public void send(Mutation<TableMetadata> mutation) throws InterruptedException {
+        this.mutationConsumer.accept(mutation);
+    }
+
+    /**
+     * Wait for all in-flight mutations to be acknowledged, so that the offset covers everything read so far.
+     */
+    public void awaitInflightMutations() throws InterruptedException {
+        if (sendWindow != null) {
+            sendWindow.drain();
+        }
+    }
+
     CompletionStage<Void> processMutation(final Mutation<TableMetadata> mutation) throws Exception {
         return this.mutationSender.sendMutationAsync(mutation)
                 .thenAccept(msgId -> {
@@ -3,14 +3,23 @@ package com.datastax.cassandra.cdc.producer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.cassandra.db.commitlog.CommitLogPosition;
 import org.apache.cassandra.db.commitlog.CommitLogReader;
+import org.apache.cassandra.schema.TableMetadata;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -35,6 +44,25 @@ public class CommitLogReaderProcessor extends AbstractProcessor implements AutoC
     private final CommitLogReadHandlerImpl commitLogReadHandler;
     private final OffsetFileWriter offsetFileWriter;
     private final CommitLogTransfer commitLogTransfer;
+    private final CommitLogTailReader commitLogTailReader = new CommitLogTailReader();
+
+    // decode immutable segments in parallel when catching up, null when disabled.
+    private final ExecutorService decodeExecutor;
+
+    /**
+     * An immutable segment being decoded.
+     */
+    static class DecodedSegment {
+        final File file;
+        final DecodedMutations<TableMetadata> mutations;
+        final Future<?> decoding;
+
+        DecodedSegment(File file, DecodedMutations<TableMetadata> mutations, Future<?> decoding) {
+            this.file = file;
+            this.mutations = mutations;
+            this.decoding = decoding;
+        }
+    }
 
     public CommitLogReaderProcessor(CommitLogReadHandlerImpl commitLogReadHandler,
                                     OffsetFileWriter offsetFileWriter,
@@ -43,6 +71,18 @@ public class CommitLogReaderProcessor extends AbstractProcessor implements AutoC
         this.commitLogReadHandler = commitLogReadHandler;
         this.offsetFileWriter = offsetFileWriter;
         this.commitLogTransfer = commitLogTransfer;
+        this.decodeExecutor = PropertyConfig.catchUpParallelism > 1
+                ? Executors.newFixedThreadPool(PropertyConfig.catchUpParallelism, new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "commitlog-decoder-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                })
+                : null;
 
         /*
         this.meterRegistry = meterRegistry;
@@ -79,7 +119,11 @@ public class CommitLogReaderProcessor extends AbstractProcessor implements AutoC
                             }
                         } catch(Exception ex) {
                         }
-                        syncedOffsetRef.set(new CommitLogPosition(seg, pos));
+                        CommitLogPosition previousSyncedOffset = syncedOffsetRef.getAndSet(new CommitLogPosition(seg, pos));
+                        if (previousSyncedOffset.segmentId > 0) {
+                            // the initial synced position may come from an old file
+                            CdcMetrics.detectionLatency.update(Math.max(0, System.currentTimeMillis() - file.lastModified()));
+                        }
                         String commitlogName = file.getName().substring(0, file.getName().length() - 8) + ".log";
                         log.debug("New synced position={} completed={} adding file={}", syncedOffsetRef.get(), completed, commitlogName);
                         this.commitLogQueue.add(new File(file.getParentFile(), commitlogName));
@@ -108,7 +152,12 @@ public class CommitLogReaderProcessor extends AbstractProcessor implements AutoC
         assert this.offsetFileWriter.offset().segmentId <= this.syncedOffsetRef.get().segmentId || this.offsetFileWriter.offset().position <= this.offsetFileWriter.offset().position : "file offset is greater than synced offset";
         File file = null;
         while(true) {
-            file = this.commitLogQueue.take();
+            file = this.commitLogQueue.poll();
+            if (file == null) {
+                // tailing, wait for the next synced commitlog
+                ReaderBacklog.setCatchingUp(false);
+                file = this.commitLogQueue.take();
+            }
             long seg = CommitLogUtil.extractTimestamp(file.getName());
 
             // ignore file before the last write offset
@@ -122,21 +171,50 @@ public class CommitLogReaderProcessor extends AbstractProcessor implements AutoC
                 continue;
             }
             log.debug("processing file={} synced offset={}", file.getName(), this.syncedOffsetRef.get());
+            ReaderBacklog.setCatchingUp(seg < this.syncedOffsetRef.get().segmentId);
             assert seg <= this.syncedOffsetRef.get().segmentId: "reading a commitlog ahead the last synced offset";
 
-            CommitLogReader commitLogReader = new CommitLogReader();
+            if (decodeExecutor != null && seg < this.syncedOffsetRef.get().segmentId) {
+                // catch-up mode, decode the queued immutable segments in parallel
+                List<File> immutableFiles = new ArrayList<>();
+                immutableFiles.add(file);
+                File next;
+                while ((next = this.commitLogQueue.poll()) != null) {
+                    long nextSeg = CommitLogUtil.extractTimestamp(next.getName());
+                    if (nextSeg >= this.syncedOffsetRef.get().segmentId) {
+                        this.commitLogQueue.add(next);
+                        break;
+                    }
+                    // skip duplicated files, the queue is ordered by segment id
+                    if (nextSeg > CommitLogUtil.extractTimestamp(immutableFiles.get(immutableFiles.size() - 1).getName())) {
+                        immutableFiles.add(next);
+                    }
+                }
+                processImmutableSegments(immutableFiles);
+                continue;
+            }
+
             try {
                 // hack to use a dummy min position for segment ahead of the offsetFile.
                 CommitLogPosition minPosition = (seg > offsetFileWriter.offset().segmentId)
                         ? new CommitLogPosition(seg, 0)
                         : new CommitLogPosition(offsetFileWriter.offset().getSegmentId(), offsetFileWriter.offset().getPosition());
 
-                commitLogReader.readCommitLogSegment(commitLogReadHandler, file, minPosition, false);
+                if (PropertyConfig.commitLogTailReadingEnabled) {
+                    commitLogTailReader.readCommitLogSegment(commitLogReadHandler, file, minPosition);
+                } else {
+                    CommitLogReader commitLogReader = new CommitLogReader();
+                    commitLogReader.readCommitLogSegment(commitLogReadHandler, file, minPosition, false);
+                }
+                // re-reading the active segment restarts from the offset, so wait for in-flight mutations first.
+                commitLogReadHandler.awaitInflightMutations();
                 log.debug("Successfully processed commitlog immutable={} minPosition={} file={}",
                         seg < this.syncedOffsetRef.get().segmentId, minPosition, file.getName());
                 if (seg < this.syncedOffsetRef.get().segmentId) {
                     commitLogTransfer.onSuccessTransfer(file);
                 }
+            } catch(InterruptedException e) {
+                throw e;
             } catch(Exception e) {
                 log.warn("Failed to read commitlog immutable="+(seg < this.syncedOffsetRef.get().segmentId)+"file="+file.getName(), e);
                 if (seg < this.syncedOffsetRef.get().segmentId) {
@@ -146,6 +224,72 @@ public class CommitLogReaderProcessor extends AbstractProcessor implements AutoC
         }
     }
 
+    /**
+     * Decode immutable segments in parallel, and send their mutations in the commitlog order,
+     * so that the offset is committed in order. Each decoded segment is streamed to the sending thread
+     * through a buffer bounded by its share of the memory budget, so the heap held by the decoded
+     * mutations stays within the budget whatever the segment sizes.
+     */
+    void processImmutableSegments(List<File> files) throws InterruptedException {
+        final long segmentBudget = PropertyConfig.catchUpMemoryBudgetMb * 1024 * 1024 / PropertyConfig.catchUpParallelism;
+        log.info("Catching up {} immutable commitlogs, parallelism={} memoryBudget={}MB",
+                files.size(), PropertyConfig.catchUpParallelism, PropertyConfig.catchUpMemoryBudgetMb);
+        ArrayDeque<DecodedSegment> decodingSegments = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < files.size() || !decodingSegments.isEmpty()) {
+                while (next < files.size() && decodingSegments.size() < PropertyConfig.catchUpParallelism) {
+                    decodingSegments.add(decode(files.get(next++), segmentBudget));
+                }
+
+                DecodedSegment decodedSegment = decodingSegments.poll();
+                try {
+                    int count = 0;
+                    Mutation<TableMetadata> mutation;
+                    while ((mutation = decodedSegment.mutations.take()) != null) {
+                        commitLogReadHandler.send(mutation);
+                        count++;
+                    }
+                    commitLogReadHandler.awaitInflightMutations();
+                    log.debug("Successfully processed commitlog immutable=true mutations={} file={}",
+                            count, decodedSegment.file.getName());
+                    commitLogTransfer.onSuccessTransfer(decodedSegment.file);
+                } catch(InterruptedException e) {
+                    decodedSegment.mutations.close();
+                    throw e;
+                } catch(Exception e) {
+                    decodedSegment.mutations.close();
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    log.warn("Failed to read commitlog immutable=true file=" + decodedSegment.file.getName(), cause);
+                    commitLogTransfer.onErrorTransfer(decodedSegment.file);
+                }
+            }
+        } finally {
+            for (DecodedSegment decodedSegment : decodingSegments) {
+                decodedSegment.mutations.close();
+                decodedSegment.decoding.cancel(true);
+            }
+        }
+    }
+
+    DecodedSegment decode(File file, long maxBytes) {
+        long seg = CommitLogUtil.extractTimestamp(file.getName());
+        final CommitLogPosition minPosition = (seg > offsetFileWriter.offset().segmentId)
+                ? new CommitLogPosition(seg, 0)
+                : new CommitLogPosition(offsetFileWriter.offset().getSegmentId(), offsetFileWriter.offset().getPosition());
+        final DecodedMutations<TableMetadata> mutations = new DecodedMutations<>(maxBytes);
+        Future<?> decoding = decodeExecutor.submit(() -> {
+            try {
+                CommitLogReadHandlerImpl decodingHandler = new CommitLogReadHandlerImpl(offsetFileWriter, mutations::put);
+                new CommitLogTailReader().readCommitLogSegment(decodingHandler, file, minPosition);
+                mutations.complete();
+            } catch(Throwable t) {
+                mutations.fail(t);
+            }
+        });
+        return new DecodedSegment(file, mutations, decoding);
+    }
+
     @Override
     public void initialize() throws Exception {
 
@@ -176,5 +320,9 @@ public class CommitLogReaderProcessor extends AbstractProcessor implements AutoC
      */
     @Override
     public void close() {
+        if (decodeExecutor != null) {
+            decodeExecutor.shutdownNow();
+        }
+        commitLogReadHandler.close();
     }
 }
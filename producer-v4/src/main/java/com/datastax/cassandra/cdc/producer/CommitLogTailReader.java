@@ -0,0 +1,182 @@
+package com.datastax.cassandra.cdc.producer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.db.commitlog.CommitLogDescriptor;
+import org.apache.cassandra.db.commitlog.CommitLogPosition;
+import org.apache.cassandra.db.commitlog.CommitLogReadHandler;
+import org.apache.cassandra.db.commitlog.CommitLogReadHandler.CommitLogReadErrorReason;
+import org.apache.cassandra.db.commitlog.CommitLogReadHandler.CommitLogReadException;
+import org.apache.cassandra.db.commitlog.CommitLogReader;
+import org.apache.cassandra.db.commitlog.CommitLogSegmentReader;
+import org.apache.cassandra.io.util.FileDataInput;
+import org.apache.cassandra.io.util.RandomAccessReader;
+import org.apache.cassandra.utils.FBUtilities;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.zip.CRC32;
+
+/**
+ * Incremental commitlog reader for the active commitlog segment.
+ *
+ * {@link CommitLogReader#readCommitLogSegment} walks all the sync markers from the beginning of the file,
+ * so re-reading the active segment on each _cdc.idx update costs a time proportional to the segment size.
+ * This reader keeps the descriptor and the position of the next sync marker of the last read segment,
+ * and resumes from that sync section when the same segment is read again.
+ *
+ * The file is re-opened on each read because the {@link RandomAccessReader} buffers would
+ * otherwise return stale bytes for the part of the segment written since the last read.
+ *
+ * As {@link CommitLogReader}, read errors are reported to the {@link CommitLogReadHandler},
+ * which decides whether the rest of the segment is skipped.
+ */
+@Slf4j
+public class CommitLogTailReader extends CommitLogReader {
+
+    // zero padding at the end of the written part of a segment.
+    private static final int END_OF_SEGMENT_MARKER = 0;
+
+    // as the non-tail reading of the processor, truncated segments are not tolerated.
+    private static final boolean TOLERATE_TRUNCATION = false;
+
+    // the CommitLogReadException constructor is package-private
+    private static final Constructor<CommitLogReadException> READ_EXCEPTION_CONSTRUCTOR;
+
+    static {
+        try {
+            READ_EXCEPTION_CONSTRUCTOR = CommitLogReadException.class.getDeclaredConstructor(
+                    String.class, CommitLogReadErrorReason.class, boolean.class);
+            READ_EXCEPTION_CONSTRUCTOR.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final CRC32 checksum = new CRC32();
+    private byte[] buffer = new byte[1024 * 64];
+
+    // tail state of the last read segment
+    private long segmentId = -1;
+    private CommitLogDescriptor descriptor;
+    private int nextSyncMarker;
+
+    /**
+     * {@link CommitLogSegmentReader} starting at a given sync marker rather than after the descriptor.
+     */
+    static class TailSegmentReader extends CommitLogSegmentReader {
+        TailSegmentReader(CommitLogReadHandler handler, CommitLogDescriptor descriptor, RandomAccessReader reader, int syncMarker) {
+            super(handler, descriptor, reader, TOLERATE_TRUNCATION);
+            this.end = syncMarker;
+        }
+    }
+
+    /**
+     * Read the mutations of a segment beyond minPosition, resuming from the last read sync section
+     * if the segment was the last one read.
+     */
+    public void readCommitLogSegment(CommitLogReadHandler handler, File file, CommitLogPosition minPosition) throws IOException {
+        long seg = CommitLogUtil.extractTimestamp(file.getName());
+        try (RandomAccessReader reader = RandomAccessReader.open(file)) {
+            if (seg != segmentId) {
+                CommitLogDescriptor desc = CommitLogDescriptor.readHeader(reader, DatabaseDescriptor.getEncryptionContext());
+                if (desc == null) {
+                    handler.handleUnrecoverableError(readException(
+                            String.format("Could not read commit log descriptor in file %s", file),
+                            CommitLogReadErrorReason.UNRECOVERABLE_DESCRIPTOR_ERROR));
+                    return;
+                }
+                this.segmentId = seg;
+                this.descriptor = desc;
+                this.nextSyncMarker = (int) reader.getFilePointer();
+            }
+            log.debug("Tail reading file={} from syncMarker={} minPosition={}", file.getName(), nextSyncMarker, minPosition);
+
+            for (CommitLogSegmentReader.SyncSegment syncSegment : new TailSegmentReader(handler, descriptor, reader, nextSyncMarker)) {
+                // skip sections completely behind minPosition
+                boolean endOfSegment = false;
+                if (descriptor.id != minPosition.segmentId || syncSegment.endPosition >= minPosition.position) {
+                    endOfSegment = !readSection(handler, syncSegment.input, minPosition, syncSegment.endPosition);
+                }
+                // the section is completely processed
+                nextSyncMarker = syncSegment.fileEndPosition;
+                if (endOfSegment) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the mutations of a sync section, return false when reaching the end of the written segment,
+     * or when the handler skips the rest of the segment on a read error.
+     */
+    private boolean readSection(CommitLogReadHandler handler, FileDataInput reader, CommitLogPosition minPosition, int end) throws IOException {
+        // seek rather than deserializing mutation-by-mutation to reach the desired minPosition in this section
+        if (descriptor.id == minPosition.segmentId && reader.getFilePointer() < minPosition.position) {
+            reader.seek(minPosition.position);
+        }
+
+        while (reader.getFilePointer() < end && !reader.isEOF()) {
+            long mutationStart = reader.getFilePointer();
+            int serializedSize;
+            long claimedCRC32;
+            try {
+                if (end - mutationStart < 4) {
+                    return false;
+                }
+                serializedSize = reader.readInt();
+                if (serializedSize == END_OF_SEGMENT_MARKER) {
+                    return false;
+                }
+                // a mutation is at least 10 bytes long, see CASSANDRA-2128
+                if (serializedSize < 10) {
+                    return !handler.shouldSkipSegmentOnError(readException(
+                            String.format("Invalid mutation size %d at %d in segment %d", serializedSize, mutationStart, descriptor.id),
+                            CommitLogReadErrorReason.MUTATION_ERROR));
+                }
+
+                long claimedSizeChecksum = reader.readInt() & 0xffffffffL;
+                checksum.reset();
+                FBUtilities.updateChecksumInt(checksum, serializedSize);
+                if (checksum.getValue() != claimedSizeChecksum) {
+                    return !handler.shouldSkipSegmentOnError(readException(
+                            String.format("Mutation size checksum failure at %d in segment %d", mutationStart, descriptor.id),
+                            CommitLogReadErrorReason.MUTATION_ERROR));
+                }
+
+                if (serializedSize > buffer.length) {
+                    buffer = new byte[(int) (1.2 * serializedSize)];
+                }
+                reader.readFully(buffer, 0, serializedSize);
+                claimedCRC32 = reader.readInt() & 0xffffffffL;
+            } catch (EOFException e) {
+                return !handler.shouldSkipSegmentOnError(readException(
+                        String.format("Unexpected end of segment at %d in segment %d", mutationStart, descriptor.id),
+                        CommitLogReadErrorReason.EOF));
+            }
+
+            checksum.update(buffer, 0, serializedSize);
+            if (claimedCRC32 != checksum.getValue()) {
+                if (handler.shouldSkipSegmentOnError(readException(
+                        String.format("Mutation checksum failure at %d in segment %d", mutationStart, descriptor.id),
+                        CommitLogReadErrorReason.MUTATION_ERROR))) {
+                    return false;
+                }
+                continue;
+            }
+            readMutation(handler, buffer, serializedSize, minPosition, (int) reader.getFilePointer(), descriptor);
+        }
+        return true;
+    }
+
+    static CommitLogReadException readException(String message, CommitLogReadErrorReason reason) {
+        try {
+            return READ_EXCEPTION_CONSTRUCTOR.newInstance(message, reason, TOLERATE_TRUNCATION);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.db.Mutation;
+import org.apache.cassandra.io.util.DataOutputBuffer;
+import org.apache.cassandra.net.MessagingService;
+import org.apache.cassandra.utils.MurmurHash;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Locale;
+
+/**
+ * Compute the digest of a {@link Mutation}, used by the source connectors to deduplicate the mutation replicas.
+ *
+ * The CommitLogReadHandler does not expose the commitlog entry bytes, so the mutation is serialized
+ * once into the thread-local scratch buffer and hashed in place, without copying it to a new byte[].
+ * All the nodes of a cluster must use the same algorithm for the deduplication to work.
+ */
+public class MutationDigest {
+
+    public enum Algorithm {
+        /**
+         * Cryptographic MD5 digest.
+         */
+        MD5,
+
+        /**
+         * Non-cryptographic 128 bits Murmur3 hash, faster and collision resistant enough for deduplication.
+         */
+        MURMUR3_128
+    }
+
+    public static final Algorithm algorithm = Algorithm.valueOf(PropertyConfig.mutationDigestAlgorithm.toUpperCase(Locale.ROOT));
+
+    private static final ThreadLocal<MessageDigest> md5 = ThreadLocal.withInitial(DigestUtils::getMd5Digest);
+    private static final ThreadLocal<long[]> murmur3 = ThreadLocal.withInitial(() -> new long[2]);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private MutationDigest() {
+    }
+
+    /**
+     * Return the hex encoded digest of the mutation.
+     */
+    public static String digest(Mutation mutation) throws IOException {
+        try (DataOutputBuffer buffer = DataOutputBuffer.scratchBuffer.get()) {
+            Mutation.serializer.serialize(mutation, buffer, MessagingService.VERSION_40);
+            switch (algorithm) {
+                case MURMUR3_128: {
+                    ByteBuffer bb = buffer.buffer();
+                    long[] hash = murmur3.get();
+                    MurmurHash.hash3_x64_128(bb, bb.position(), bb.remaining(), 0, hash);
+                    return toHex(hash[0], hash[1]);
+                }
+                default: {
+                    MessageDigest messageDigest = md5.get();
+                    messageDigest.update(buffer.getData(), 0, buffer.getLength());
+                    return toHex(messageDigest.digest());
+                }
+            }
+        }
+    }
+
+    static String toHex(long h1, long h2) {
+        char[] chars = new char[32];
+        for (int i = 0; i < 16; i++) {
+            chars[15 - i] = HEX[(int) (h1 & 0xF)];
+            chars[31 - i] = HEX[(int) (h2 & 0xF)];
+            h1 >>>= 4;
+            h2 >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
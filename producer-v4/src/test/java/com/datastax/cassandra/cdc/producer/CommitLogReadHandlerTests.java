@@ -0,0 +1,110 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.schema.TableMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommitLogReadHandlerTests {
+
+    /**
+     * Sink failing all the sends until it is available.
+     */
+    static class UnavailableSender implements MutationSender<TableMetadata> {
+        final AtomicBoolean available = new AtomicBoolean(false);
+        final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public CompletionStage<?> sendMutationAsync(Mutation<TableMetadata> mutation) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            if (available.get()) {
+                future.complete(null);
+            } else {
+                failures.incrementAndGet();
+                future.completeExceptionally(new IllegalStateException("sink unavailable"));
+            }
+            return future;
+        }
+    }
+
+    static Mutation<TableMetadata> mutation(int position) {
+        return mutation(position, new RowData());
+    }
+
+    static Mutation<TableMetadata> mutation(int position, RowData rowData) {
+        return new Mutation<>(new CommitLogPosition(1, position), null, rowData, true, 0L, "digest" + position, null, null);
+    }
+
+    @Test
+    public final void testAcknowledgedRowsReleased() throws Exception {
+        OffsetFileWriter offsetFileWriter = new OffsetFileWriter(Files.createTempDirectory("cdc").toString());
+        UnavailableSender sender = new UnavailableSender();
+        sender.available.set(true);
+        CommitLogReadHandlerImpl handler = new CommitLogReadHandlerImpl(offsetFileWriter, sender, 4, new CircuitBreaker(1, 10));
+        try {
+            RowData row = RowData.acquire(1);
+            row.setCell(0, new CellData("id", 1, null, CellData.ColumnType.PARTITION));
+            handler.send(mutation(10, row));
+            handler.awaitInflightMutations();
+            assertEquals(1, row.primaryKeyCells().size());
+
+            // the next send on the reader thread returns the acknowledged row to the pool
+            handler.send(mutation(20));
+            handler.awaitInflightMutations();
+            assertEquals(0, row.primaryKeyCells().size());
+            assertSame(row, RowData.acquire(1));
+        } finally {
+            handler.close();
+        }
+    }
+
+    @Test
+    public final void testFullWindowWithUnavailableSink() throws Exception {
+        OffsetFileWriter offsetFileWriter = new OffsetFileWriter(Files.createTempDirectory("cdc").toString());
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 10);
+        UnavailableSender sender = new UnavailableSender();
+        CommitLogReadHandlerImpl handler = new CommitLogReadHandlerImpl(offsetFileWriter, sender, 2, circuitBreaker);
+        try {
+            // the window fills up with failed sends waiting for a retry, the reader blocks on the next mutation
+            AtomicBoolean sent = new AtomicBoolean();
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int i = 1; i <= 10; i++) {
+                        handler.send(mutation(i * 10));
+                    }
+                    handler.awaitInflightMutations();
+                    sent.set(true);
+                } catch (InterruptedException e) {
+                }
+            }, "reader");
+            reader.setDaemon(true);
+            reader.start();
+            while (sender.failures.get() < 10) {
+                assertTrue(reader.isAlive());
+                Thread.sleep(10);
+            }
+            assertFalse(sent.get());
+            assertEquals(new CommitLogPosition(0, 0), offsetFileWriter.offset());
+
+            // once the sink is available, the half-open probes are issued and the retries drain the window
+            sender.available.set(true);
+            reader.join(TimeUnit.SECONDS.toMillis(60));
+            assertFalse(reader.isAlive(), "reader deadlocked");
+            assertTrue(sent.get());
+            assertEquals(new CommitLogPosition(1, 100), offsetFileWriter.offset());
+            assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        } finally {
+            handler.close();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.db.Mutation;
+import org.apache.cassandra.db.commitlog.CommitLogDescriptor;
+import org.apache.cassandra.db.commitlog.CommitLogPosition;
+import org.apache.cassandra.db.commitlog.CommitLogReadHandler;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.db.partitions.PartitionUpdate;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.io.util.DataOutputBuffer;
+import org.apache.cassandra.net.MessagingService;
+import org.apache.cassandra.schema.KeyspaceMetadata;
+import org.apache.cassandra.schema.KeyspaceParams;
+import org.apache.cassandra.schema.Schema;
+import org.apache.cassandra.schema.TableMetadata;
+import org.apache.cassandra.schema.TableParams;
+import org.apache.cassandra.schema.Tables;
+import org.apache.cassandra.utils.FBUtilities;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class CommitLogTailReaderTests {
+    static final int SEGMENT_SIZE = 1024 * 1024;
+
+    static TableMetadata table;
+
+    @BeforeAll
+    public static void initSchema() {
+        DatabaseDescriptor.clientInitialization(false);
+        DatabaseDescriptor.setPartitionerUnsafe(Murmur3Partitioner.instance);
+        DatabaseDescriptor.getRawConfig().max_mutation_size_in_kb = 1024;
+        table = TableMetadata.builder("ks1", "table1")
+                .partitioner(Murmur3Partitioner.instance)
+                .params(TableParams.builder().cdc(true).build())
+                .addPartitionKeyColumn("id", Int32Type.instance)
+                .addRegularColumn("v", UTF8Type.instance)
+                .build();
+        Schema.instance.load(KeyspaceMetadata.create("ks1", KeyspaceParams.simple(1), Tables.of(table)));
+    }
+
+    /**
+     * Write a pre-allocated commitlog segment, sections are written before their sync marker.
+     */
+    static class SegmentWriter implements AutoCloseable {
+        final CommitLogDescriptor descriptor;
+        final File file;
+        final FileChannel channel;
+        final DataOutputBuffer section = new DataOutputBuffer();
+        int markerPosition;
+
+        SegmentWriter(File dir, long segmentId) throws IOException {
+            this.descriptor = new CommitLogDescriptor(segmentId, null, null);
+            this.file = new File(dir, descriptor.fileName());
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(4096);
+            CommitLogDescriptor.writeHeader(header, descriptor);
+            header.flip();
+            markerPosition = header.remaining();
+            write(header, 0);
+            write(ByteBuffer.allocate(1), SEGMENT_SIZE - 1);
+        }
+
+        SegmentWriter add(int id) throws IOException {
+            return add(id, false, false);
+        }
+
+        SegmentWriter add(int id, boolean badSizeChecksum, boolean badChecksum) throws IOException {
+            PartitionUpdate.SimpleBuilder builder = PartitionUpdate.simpleBuilder(table, id).timestamp(FBUtilities.timestampMicros());
+            builder.row().add("v", "value" + id);
+            Mutation mutation = new Mutation(builder.build());
+            DataOutputBuffer entry = new DataOutputBuffer();
+            Mutation.serializer.serialize(mutation, entry, MessagingService.current_version);
+            int size = entry.getLength();
+            CRC32 crc = new CRC32();
+            FBUtilities.updateChecksumInt(crc, size);
+            section.writeInt(size);
+            section.writeInt((int) crc.getValue() + (badSizeChecksum ? 1 : 0));
+            crc.update(entry.getData(), 0, size);
+            section.write(entry.getData(), 0, size);
+            section.writeInt((int) crc.getValue() + (badChecksum ? 1 : 0));
+            return this;
+        }
+
+        /**
+         * Write the section, and its sync marker if synced, return the end position of the section.
+         */
+        int sync(boolean writeMarker) throws IOException {
+            int nextMarker = markerPosition + 8 + section.getLength();
+            write(ByteBuffer.wrap(section.getData(), 0, section.getLength()), markerPosition + 8);
+            if (writeMarker) {
+                writeMarker(nextMarker);
+            }
+            return nextMarker;
+        }
+
+        void writeMarker(int nextMarker) throws IOException {
+            CRC32 markerCrc = new CRC32();
+            FBUtilities.updateChecksumInt(markerCrc, (int) (descriptor.id & 0xFFFFFFFFL));
+            FBUtilities.updateChecksumInt(markerCrc, (int) (descriptor.id >>> 32));
+            FBUtilities.updateChecksumInt(markerCrc, markerPosition);
+            ByteBuffer marker = ByteBuffer.allocate(8);
+            marker.putInt(nextMarker);
+            marker.putInt((int) markerCrc.getValue());
+            marker.flip();
+            write(marker, markerPosition);
+            section.clear();
+            markerPosition = nextMarker;
+        }
+
+        void write(ByteBuffer buffer, long position) throws IOException {
+            int start = buffer.position();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position() - start);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Record the partition keys of the read mutations and the read errors.
+     */
+    static class RecordingHandler implements CommitLogReadHandler {
+        final List<Integer> keys = new ArrayList<>();
+        final List<CommitLogReadException> errors = new ArrayList<>();
+        boolean skipSegmentOnError = false;
+
+        @Override
+        public boolean shouldSkipSegmentOnError(CommitLogReadException exception) {
+            errors.add(exception);
+            return skipSegmentOnError;
+        }
+
+        @Override
+        public void handleUnrecoverableError(CommitLogReadException exception) {
+            errors.add(exception);
+        }
+
+        @Override
+        public void handleMutation(Mutation mutation, int size, int entryLocation, CommitLogDescriptor descriptor) {
+            keys.add(Int32Type.instance.compose(mutation.key().getKey()));
+        }
+    }
+
+    @Test
+    public final void testResumeFromSyncMarker() throws Exception {
+        File dir = Files.createTempDirectory("commitlog").toFile();
+        CommitLogTailReader tailReader = new CommitLogTailReader();
+        RecordingHandler handler = new RecordingHandler();
+        try (SegmentWriter writer = new SegmentWriter(dir, 1)) {
+            int firstMarker = writer.markerPosition;
+            writer.add(1).add(2).sync(true);
+            tailReader.readCommitLogSegment(handler, writer.file, new CommitLogPosition(1, 0));
+            assertEquals(Arrays.asList(1, 2), handler.keys);
+
+            // corrupt the first section, a resumed read starts from the next sync marker
+            byte[] garbage = new byte[64];
+            Arrays.fill(garbage, (byte) 0x7f);
+            writer.write(ByteBuffer.wrap(garbage), firstMarker + 8);
+            writer.add(3).sync(true);
+            tailReader.readCommitLogSegment(handler, writer.file, new CommitLogPosition(1, 0));
+            assertEquals(Arrays.asList(1, 2, 3), handler.keys);
+            assertEquals(0, handler.errors.size());
+        }
+    }
+
+    @Test
+    public final void testPartialTailSection() throws Exception {
+        File dir = Files.createTempDirectory("commitlog").toFile();
+        CommitLogTailReader tailReader = new CommitLogTailReader();
+        RecordingHandler handler = new RecordingHandler();
+        try (SegmentWriter writer = new SegmentWriter(dir, 1)) {
+            writer.add(1).sync(true);
+            // the section is written but not yet synced
+            int nextMarker = writer.add(2).add(3).sync(false);
+            tailReader.readCommitLogSegment(handler, writer.file, new CommitLogPosition(1, 0));
+            assertEquals(Arrays.asList(1), handler.keys);
+
+            writer.writeMarker(nextMarker);
+            tailReader.readCommitLogSegment(handler, writer.file, new CommitLogPosition(1, 0));
+            assertEquals(Arrays.asList(1, 2, 3), handler.keys);
+            assertEquals(0, handler.errors.size());
+        }
+    }
+
+    @Test
+    public final void testChecksumMismatch() throws Exception {
+        File dir = Files.createTempDirectory("commitlog").toFile();
+        CommitLogTailReader tailReader = new CommitLogTailReader();
+        RecordingHandler handler = new RecordingHandler();
+        try (SegmentWriter writer = new SegmentWriter(dir, 1)) {
+            // a bad mutation checksum skips the mutation
+            writer.add(1).add(2, false, true).add(3).sync(true);
+            // a bad size checksum skips the rest of the section
+            writer.add(4, true, false).add(5).sync(true);
+            writer.add(6).sync(true);
+            tailReader.readCommitLogSegment(handler, writer.file, new CommitLogPosition(1, 0));
+            assertEquals(Arrays.asList(1, 3, 6), handler.keys);
+            assertEquals(2, handler.errors.size());
+            for (CommitLogReadHandler.CommitLogReadException error : handler.errors) {
+                assertEquals(CommitLogReadHandler.CommitLogReadErrorReason.MUTATION_ERROR, error.reason);
+                assertFalse(error.permissible);
+            }
+
+            // the handler skips the rest of the segment
+            RecordingHandler skippingHandler = new RecordingHandler();
+            skippingHandler.skipSegmentOnError = true;
+            new CommitLogTailReader().readCommitLogSegment(skippingHandler, writer.file, new CommitLogPosition(1, 0));
+            assertEquals(Arrays.asList(1), skippingHandler.keys);
+            assertEquals(1, skippingHandler.errors.size());
+        }
+    }
+
+    @Test
+    public final void testSegmentSwitch() throws Exception {
+        File dir = Files.createTempDirectory("commitlog").toFile();
+        CommitLogTailReader tailReader = new CommitLogTailReader();
+        RecordingHandler handler = new RecordingHandler();
+        try (SegmentWriter writer1 = new SegmentWriter(dir, 1);
+             SegmentWriter writer2 = new SegmentWriter(dir, 2)) {
+            writer1.add(1).add(2).sync(true);
+            tailReader.readCommitLogSegment(handler, writer1.file, new CommitLogPosition(1, 0));
+            writer1.add(3).sync(true);
+            writer2.add(4).sync(true);
+
+            // the processor reads a segment ahead of the offset from its beginning
+            tailReader.readCommitLogSegment(handler, writer1.file, new CommitLogPosition(1, 0));
+            tailReader.readCommitLogSegment(handler, writer2.file, new CommitLogPosition(2, 0));
+            writer2.add(5).sync(true);
+            tailReader.readCommitLogSegment(handler, writer2.file, new CommitLogPosition(2, 0));
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5), handler.keys);
+            assertEquals(0, handler.errors.size());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.datastax.cassandra.cdc.producer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The former map based {@link RowData}, kept as the baseline of {@link RowDataBenchmark}.
+ */
+public class MapRowData {
+    private final Map<String, CellData> cellMap = new LinkedHashMap<>();
+
+    public void addCell(CellData cellData) {
+        this.cellMap.put(cellData.name, cellData);
+    }
+
+    public List<CellData> primaryKeyCells() {
+        return this.cellMap.values().stream().filter(CellData::isPrimary).collect(Collectors.toList());
+    }
+
+    public String[] nonPrimaryKeyNames() {
+        return this.cellMap.values().stream()
+                .filter(cd -> !cd.isPrimary())
+                .map(cell->cell.name)
+                .toArray(String[]::new);
+    }
+}
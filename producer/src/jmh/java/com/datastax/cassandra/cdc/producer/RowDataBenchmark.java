@@ -0,0 +1,74 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build a row with a composite primary key and read it as a sender does, once for the key and once
+ * for the mutation value. Run with the gc profiler to compare the allocation rate of the map based
+ * row and of the pooled compact row:
+ * <pre>
+ * ./gradlew :producer:jmh
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowDataBenchmark {
+
+    CellData[] partitionKeyCells;
+    String clusteringName;
+    long clusteringValue;
+
+    @Setup
+    public void setup() {
+        partitionKeyCells = new CellData[] {
+                new CellData("id", UUID.randomUUID(), null, CellData.ColumnType.PARTITION),
+                new CellData("bucket", 42, null, CellData.ColumnType.PARTITION)
+        };
+        clusteringName = "ts";
+        clusteringValue = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public void mapRowData(Blackhole blackhole) {
+        MapRowData row = new MapRowData();
+        for (CellData cell : partitionKeyCells) {
+            row.addCell(cell);
+        }
+        row.addCell(new CellData(clusteringName, clusteringValue, null, CellData.ColumnType.CLUSTERING));
+        blackhole.consume(row.primaryKeyCells());
+        blackhole.consume(row.nonPrimaryKeyNames());
+        blackhole.consume(row.primaryKeyCells());
+        blackhole.consume(row.nonPrimaryKeyNames());
+    }
+
+    @Benchmark
+    public void compactRowData(Blackhole blackhole) {
+        RowData row = RowData.acquire(partitionKeyCells.length + 1);
+        for (int i = 0; i < partitionKeyCells.length; i++) {
+            row.setCell(i, partitionKeyCells[i]);
+        }
+        row.setCell(partitionKeyCells.length, new CellData(clusteringName, clusteringValue, null, CellData.ColumnType.CLUSTERING));
+        blackhole.consume(row.primaryKeyCells());
+        blackhole.consume(row.nonPrimaryKeyNames());
+        blackhole.consume(row.primaryKeyCells());
+        blackhole.consume(row.nonPrimaryKeyNames());
+        row.release();
+    }
+}
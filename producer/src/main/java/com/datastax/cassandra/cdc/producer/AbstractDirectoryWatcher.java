@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
@@ -53,21 +54,37 @@ public abstract class AbstractDirectoryWatcher {
         directory.register(watchService, kinds.toArray(new WatchEvent.Kind<?>[kinds.size()]));
     }
 
-    public void poll() throws InterruptedException, IOException {
-        WatchKey key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    public int poll() throws InterruptedException, IOException {
+        return poll(pollInterval);
+    }
+
+    /**
+     * Wait up to timeout for events, and return the number of handled events.
+     */
+    public int poll(Duration timeout) throws InterruptedException, IOException {
+        WatchKey key = watchService.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
 
+        int handled = 0;
         if (key != null) {
             for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // events were lost, count it as an activity
+                    log.debug("Lost events in directory={}", directory);
+                    handled++;
+                    continue;
+                }
                 Path relativePath = (Path) event.context();
                 Path absolutePath = directory.resolve(relativePath);
 
                 if (kinds.contains(event.kind())) {
                     log.debug("Detected new commitlog file={}", absolutePath);
                     handleEvent(event, absolutePath);
+                    handled++;
                 }
             }
             key.reset();
         }
+        return handled;
     }
 
     abstract void handleEvent(WatchEvent<?> event, Path path) throws IOException;
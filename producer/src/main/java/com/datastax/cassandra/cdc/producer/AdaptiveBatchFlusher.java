@@ -0,0 +1,95 @@
+package com.datastax.cassandra.cdc.producer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Adapt the producer batch delay to the reader backlog.
+ *
+ * Producers are created with the max batch delay. While the reader is tailing the commitlog, pending batches
+ * are flushed after the min delay to keep the latency low. When the reader is behind, batches are only sent
+ * when full or after the max delay, trading latency for throughput.
+ *
+ * The reader is behind when it catches up immutable segments, or when it keeps the send window at least
+ * half full. With a window of one mutation, each send waits for its acknowledgement and a delayed batch
+ * would only delay the reader, so the batches are always flushed after the min delay.
+ */
+@Slf4j
+public class AdaptiveBatchFlusher implements AutoCloseable {
+
+    private final long minDelayMs;
+    private final int backlogThreshold;
+    private final Runnable flush;
+
+    private final AtomicInteger pendingMessages = new AtomicInteger(0);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService flusher;
+
+    private final BooleanSupplier catchingUp;
+
+    /**
+     * @param maxInflightMutations the size of the send window.
+     * @param catchingUp whether the reader is catching up, see {@link ReaderBacklog}.
+     */
+    public AdaptiveBatchFlusher(long minDelayMs, int maxInflightMutations, BooleanSupplier catchingUp, Runnable flush) {
+        this.minDelayMs = minDelayMs;
+        this.backlogThreshold = backlogThreshold(maxInflightMutations);
+        this.catchingUp = catchingUp;
+        this.flush = flush;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Number of pending messages from which the reader is behind, none with a window of one mutation.
+     */
+    static int backlogThreshold(int maxInflightMutations) {
+        return maxInflightMutations > 1 ? Math.max(2, maxInflightMutations / 2) : Integer.MAX_VALUE;
+    }
+
+    boolean behind(int pending) {
+        return backlogThreshold != Integer.MAX_VALUE && (pending >= backlogThreshold || catchingUp.getAsBoolean());
+    }
+
+    /**
+     * Called before sending a message, schedule a flush when tailing.
+     */
+    public void onSend() {
+        if (!behind(pendingMessages.incrementAndGet()) && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.schedule(() -> {
+                    flushScheduled.set(false);
+                    flush.run();
+                }, minDelayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("Batch flusher stopped");
+            }
+        }
+    }
+
+    /**
+     * Called when a message is acknowledged or failed.
+     */
+    public void onComplete() {
+        pendingMessages.decrementAndGet();
+    }
+
+    public int pendingMessages() {
+        return pendingMessages.get();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+    }
+}
@@ -0,0 +1,39 @@
+package com.datastax.cassandra.cdc.producer;
+
+/**
+ * Poll interval adapting to the commitlog write rate.
+ *
+ * The interval drops to the minimum as soon as a change is detected, and doubles on each idle poll
+ * up to the maximum, so an active node is polled frequently while an idle one is polled rarely.
+ */
+public class AdaptivePollInterval {
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private long intervalMs;
+
+    /**
+     * The min interval is clamped to the max interval, so a max interval configured below the default min
+     * interval is a fixed poll interval.
+     */
+    public AdaptivePollInterval(long minIntervalMs, long maxIntervalMs) {
+        if (maxIntervalMs <= 0) {
+            throw new IllegalArgumentException("Invalid poll interval max=" + maxIntervalMs);
+        }
+        this.minIntervalMs = Math.max(1, Math.min(minIntervalMs, maxIntervalMs));
+        this.maxIntervalMs = maxIntervalMs;
+        this.intervalMs = this.minIntervalMs;
+    }
+
+    public long get() {
+        return intervalMs;
+    }
+
+    /**
+     * Update the interval after a poll, and return the next interval.
+     */
+    public long update(boolean changeDetected) {
+        intervalMs = changeDetected ? minIntervalMs : Math.min(maxIntervalMs, intervalMs * 2);
+        return intervalMs;
+    }
+}
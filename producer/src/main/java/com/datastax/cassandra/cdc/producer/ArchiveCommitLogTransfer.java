@@ -0,0 +1,275 @@
+package com.datastax.cassandra.cdc.producer;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of {@link CommitLogTransfer} which archives the processed commit logs for a later replay.
+ *
+ * Processed commit logs are moved to the archive folder of the relocation directory, releasing the cdc_raw space
+ * without copying them when on the same file system. They are then compressed by a low priority background thread,
+ * with a maximum I/O rate, and the oldest archives are deleted beyond the retention size or age.
+ * Commit logs not successfully processed are moved to the error folder, and moved back to the cdc directory
+ * for reprocessing by {@link #getErrorCommitLogFiles()}.
+ */
+@Slf4j
+public class ArchiveCommitLogTransfer implements CommitLogTransfer {
+    public static final String ARCHIVE_FOLDER = "archive";
+    public static final String ERROR_FOLDER = "error";
+
+    static final Pattern ARCHIVE_REGEX_PATTERN = Pattern.compile("CommitLog-\\d+-(\\d+)\\.log(\\.lz4|\\.zst)?");
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Compression {
+        NONE(""),
+        LZ4(".lz4"),
+        ZSTD(".zst");
+
+        final String suffix;
+
+        Compression(String suffix) {
+            this.suffix = suffix;
+        }
+
+        OutputStream compress(OutputStream out) throws IOException {
+            switch (this) {
+                case LZ4:
+                    return new LZ4BlockOutputStream(out, BUFFER_SIZE);
+                case ZSTD:
+                    return new ZstdOutputStream(out);
+                default:
+                    return out;
+            }
+        }
+    }
+
+    private final File cdcDir;
+    private final File archiveDir;
+    private final File errorDir;
+    private final Compression compression;
+    private final long maxArchiveSize;
+    private final long maxArchiveAgeMs;
+    private final long maxBytesPerSec;
+
+    private final ExecutorService archiver;
+
+    public ArchiveCommitLogTransfer(File cdcDir) throws IOException {
+        this(cdcDir, new File(PropertyConfig.cdcRelocationDir),
+                Compression.valueOf(PropertyConfig.archiveCompression.toUpperCase(Locale.ROOT)),
+                PropertyConfig.archiveMaxSizeMb * 1024 * 1024,
+                PropertyConfig.archiveMaxAgeMs,
+                PropertyConfig.archiveMaxMbPerSec * 1024 * 1024);
+    }
+
+    /**
+     * @param maxArchiveSize  the retention size in bytes of the archives, 0 for unlimited.
+     * @param maxArchiveAgeMs the retention age of the archives, 0 for unlimited.
+     * @param maxBytesPerSec  the maximum bytes read per second by the compression, 0 for unlimited.
+     */
+    public ArchiveCommitLogTransfer(File cdcDir, File relocationDir, Compression compression,
+                                    long maxArchiveSize, long maxArchiveAgeMs, long maxBytesPerSec) throws IOException {
+        if (compression == Compression.ZSTD && !isAvailable("com.github.luben.zstd.ZstdOutputStream")) {
+            throw new IllegalArgumentException("ZSTD compression is not available, use LZ4 or NONE");
+        }
+        this.cdcDir = cdcDir;
+        this.archiveDir = new File(relocationDir, ARCHIVE_FOLDER);
+        this.errorDir = new File(relocationDir, ERROR_FOLDER);
+        this.compression = compression;
+        this.maxArchiveSize = maxArchiveSize;
+        this.maxArchiveAgeMs = maxArchiveAgeMs;
+        this.maxBytesPerSec = maxBytesPerSec;
+        for (File dir : new File[] { archiveDir, errorDir }) {
+            if (!dir.mkdirs() && !dir.isDirectory()) {
+                throw new IOException("Failed to create " + dir);
+            }
+        }
+        this.archiver = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "commitlog-archiver");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        // resume the archives interrupted by a restart
+        File[] files = archiveDir.listFiles();
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparing(File::getName));
+            for (File file : files) {
+                if (file.getName().endsWith(".tmp")) {
+                    Files.deleteIfExists(file.toPath());
+                } else if (compression != Compression.NONE && file.getName().endsWith(".log")) {
+                    archiver.submit(() -> compress(file));
+                }
+            }
+        }
+        archiver.submit(this::applyRetention);
+    }
+
+    private static boolean isAvailable(String className) {
+        try {
+            Class.forName(className, false, ArchiveCommitLogTransfer.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void onSuccessTransfer(File file) {
+        File archivedFile = new File(archiveDir, file.getName());
+        CommitLogUtil.moveCommitLog(file, archiveDir.toPath());
+        if (!archivedFile.exists()) {
+            return;
+        }
+        try {
+            archiver.submit(() -> {
+                if (compression != Compression.NONE) {
+                    compress(archivedFile);
+                }
+                applyRetention();
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Commitlog archiver stopped, file={} archived without compression", archivedFile.getName());
+        }
+    }
+
+    @Override
+    public void onErrorTransfer(File file) {
+        CommitLogUtil.moveCommitLog(file, errorDir.toPath());
+    }
+
+    @Override
+    public void getErrorCommitLogFiles() {
+        File[] files = errorDir.listFiles(f -> f.isFile() && CommitLogUtil.FILENAME_REGEX_PATTERN.matcher(f.getName()).matches());
+        if (files != null) {
+            for (File file : files) {
+                CommitLogUtil.moveCommitLog(file, cdcDir.toPath());
+            }
+        }
+    }
+
+    /**
+     * Compress an archived commit log in a temporary file, renamed once complete.
+     */
+    void compress(File file) {
+        if (!file.exists()) {
+            return;
+        }
+        File compressedFile = new File(archiveDir, file.getName() + compression.suffix);
+        File tmpFile = new File(archiveDir, compressedFile.getName() + ".tmp");
+        long size = file.length();
+        long start = System.nanoTime();
+        try {
+            try (InputStream in = new FileInputStream(file);
+                 OutputStream out = compression.compress(new FileOutputStream(tmpFile))) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long readBytes = 0;
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                    readBytes += n;
+                    throttle(readBytes, start);
+                }
+            }
+            // the retention age starts from the last write of the commit log
+            tmpFile.setLastModified(file.lastModified());
+            Files.move(tmpFile.toPath(), compressedFile.toPath());
+            Files.delete(file.toPath());
+            log.debug("Compressed commitlog file={} size={} compressedSize={} in {}ms", file.getName(),
+                    size, compressedFile.length(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteQuietly(tmpFile);
+        } catch (Exception e) {
+            log.warn("Failed to compress the commitlog file=" + file.getName(), e);
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    /**
+     * Sleep until the read bytes do not exceed the maximum rate.
+     */
+    void throttle(long readBytes, long startNanos) throws InterruptedException {
+        if (maxBytesPerSec > 0) {
+            long expectedNanos = readBytes * TimeUnit.SECONDS.toNanos(1) / maxBytesPerSec;
+            long delayNanos = expectedNanos - (System.nanoTime() - startNanos);
+            if (delayNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            }
+        }
+    }
+
+    /**
+     * Delete the oldest archives beyond the retention size or age, commit logs waiting for their compression are kept.
+     */
+    void applyRetention() {
+        if (maxArchiveSize <= 0 && maxArchiveAgeMs <= 0) {
+            return;
+        }
+        List<File> archives = new ArrayList<>();
+        long totalSize = 0;
+        File[] files = archiveDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = ARCHIVE_REGEX_PATTERN.matcher(file.getName());
+                if (matcher.matches() && (compression == Compression.NONE || matcher.group(2) != null)) {
+                    archives.add(file);
+                    totalSize += file.length();
+                }
+            }
+        }
+        archives.sort(Comparator.comparingLong(ArchiveCommitLogTransfer::segmentId));
+        long minLastModified = System.currentTimeMillis() - maxArchiveAgeMs;
+        for (File archive : archives) {
+            boolean tooLarge = maxArchiveSize > 0 && totalSize > maxArchiveSize;
+            boolean tooOld = maxArchiveAgeMs > 0 && archive.lastModified() < minLastModified;
+            if (!tooLarge && !tooOld) {
+                continue;
+            }
+            long size = archive.length();
+            if (deleteQuietly(archive)) {
+                totalSize -= size;
+                log.debug("Deleted archived commitlog file={} tooLarge={} tooOld={}", archive.getName(), tooLarge, tooOld);
+            }
+        }
+    }
+
+    static long segmentId(File archive) {
+        Matcher matcher = ARCHIVE_REGEX_PATTERN.matcher(archive.getName());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0L;
+    }
+
+    private static boolean deleteQuietly(File file) {
+        try {
+            return Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            log.warn("Failed to delete the file=" + file.getName(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        archiver.shutdownNow();
+    }
+}
@@ -0,0 +1,76 @@
+package com.datastax.cassandra.cdc.producer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stat based scanner of the _cdc.idx files of the cdc_raw directory.
+ *
+ * WatchService events may be coalesced or lost (OVERFLOW, overlay filesystems), so the directory
+ * is also scanned and a _cdc.idx file is reported as changed when its last modified time or size differs
+ * from the previous scan. A scan only costs a directory listing and one stat per file.
+ */
+@Slf4j
+public class CdcIndexScanner {
+
+    static class FileStat {
+        final long lastModified;
+        final long size;
+
+        FileStat(long lastModified, long size) {
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        boolean sameAs(FileStat other) {
+            return other != null && other.lastModified == lastModified && other.size == size;
+        }
+    }
+
+    private final File cdcDir;
+    private Map<String, FileStat> stats = new HashMap<>();
+
+    public CdcIndexScanner(File cdcDir) {
+        this.cdcDir = cdcDir;
+    }
+
+    /**
+     * Return the _cdc.idx files created or modified since the last scan, sorted by segment id.
+     */
+    public List<File> scan() {
+        File[] files = cdcDir.listFiles(f -> f.getName().endsWith("_cdc.idx")
+                && CommitLogUtil.FILENAME_REGEX_PATTERN.matcher(f.getName()).matches());
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files, CommitLogUtil::compareCommitLogs);
+
+        List<File> changed = new ArrayList<>();
+        Map<String, FileStat> newStats = new HashMap<>(files.length * 2);
+        for (File file : files) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                FileStat stat = new FileStat(attributes.lastModifiedTime().toMillis(), attributes.size());
+                if (!stat.sameAs(stats.get(file.getName()))) {
+                    log.debug("Detected modified file={}", file.getName());
+                    changed.add(file);
+                }
+                newStats.put(file.getName(), stat);
+            } catch (IOException e) {
+                // file removed by the commitlog transfer since the listing
+                log.debug("Cannot stat file={}: {}", file.getName(), e.toString());
+            }
+        }
+        this.stats = newStats;
+        return changed;
+    }
+}
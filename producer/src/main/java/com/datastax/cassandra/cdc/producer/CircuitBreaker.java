@@ -0,0 +1,95 @@
+package com.datastax.cassandra.cdc.producer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker protecting the sink.
+ *
+ * The breaker opens after a number of consecutive send failures, and the commitlog reader then waits
+ * rather than piling up retries. Once the open duration is elapsed, the breaker is half-open and lets
+ * one probe through: its success closes the breaker, its failure opens it again.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        if (failureThreshold < 1 || openDurationMs < 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker threshold=" + failureThreshold + " openDuration=" + openDurationMs);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+    }
+
+    /**
+     * Block while the breaker is open, or half-open with a probe in flight.
+     * @return the time spent blocked in milliseconds.
+     */
+    public synchronized long acquire() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (true) {
+            if (state == State.OPEN) {
+                long remaining = openedAt + openDurationMs - System.currentTimeMillis();
+                if (remaining > 0) {
+                    wait(remaining);
+                    continue;
+                }
+                log.info("Circuit breaker half-open, probing the sink");
+                state = State.HALF_OPEN;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probeInFlight) {
+                    wait();
+                    continue;
+                }
+                probeInFlight = true;
+            }
+            return System.currentTimeMillis() - start;
+        }
+    }
+
+    public void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return; // fast path, no failure to reset
+        }
+        synchronized (this) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            log.info("Circuit breaker closed, the sink is available");
+            state = State.CLOSED;
+            notifyAll();
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("Circuit breaker open for {}ms after {} consecutive failures", openDurationMs, consecutiveFailures);
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            notifyAll();
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+}
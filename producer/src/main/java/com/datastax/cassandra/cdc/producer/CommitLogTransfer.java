@@ -6,6 +6,8 @@
 package com.datastax.cassandra.cdc.producer;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
 import java.util.Properties;
 
 /**
@@ -13,6 +15,20 @@ import java.util.Properties;
  */
 public interface CommitLogTransfer extends AutoCloseable {
 
+    /**
+     * The transfer selected by the system properties, blackhole or archive.
+     */
+    static CommitLogTransfer fromConfig(File cdcDir) throws IOException {
+        switch (PropertyConfig.commitLogTransfer.toLowerCase(Locale.ROOT)) {
+            case "blackhole":
+                return new BlackHoleCommitLogTransfer();
+            case "archive":
+                return new ArchiveCommitLogTransfer(cdcDir);
+            default:
+                throw new IllegalArgumentException("Unknown commitlog transfer " + PropertyConfig.commitLogTransfer);
+        }
+    }
+
     /**
      * Initialize resources required by the commit log transfer
      */
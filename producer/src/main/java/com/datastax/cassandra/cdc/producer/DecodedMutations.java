@@ -0,0 +1,90 @@
+package com.datastax.cassandra.cdc.producer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Mutations decoded from a commitlog segment, handed over from a decoding thread to the sending thread.
+ *
+ * The buffer is bounded by the estimated heap size of the mutations it holds, so a decoder blocks when the
+ * sending thread falls behind. A single mutation larger than the budget is still accepted when the buffer is empty.
+ * Once closed, the buffer drops the decoded mutations so that a cancelled decoder does not block.
+ */
+public class DecodedMutations<T> {
+
+    private final long maxBytes;
+    private final ArrayDeque<Mutation<T>> mutations = new ArrayDeque<>();
+    private long bytes = 0;
+    private boolean completed = false;
+    private boolean closed = false;
+    private Throwable error = null;
+
+    public DecodedMutations(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Block until the mutation fits in the budget, then add it.
+     */
+    public synchronized void put(Mutation<T> mutation) throws InterruptedException {
+        long size = mutation.estimatedSize();
+        while (!closed && !mutations.isEmpty() && bytes + size > maxBytes) {
+            wait();
+        }
+        if (!closed) {
+            mutations.add(mutation);
+            bytes += size;
+            notifyAll();
+        }
+    }
+
+    /**
+     * The segment is fully decoded.
+     */
+    public synchronized void complete() {
+        completed = true;
+        notifyAll();
+    }
+
+    /**
+     * The segment decoding failed.
+     */
+    public synchronized void fail(Throwable error) {
+        this.error = error;
+        notifyAll();
+    }
+
+    /**
+     * Drop the buffered mutations and the next decoded ones.
+     */
+    public synchronized void close() {
+        closed = true;
+        mutations.clear();
+        bytes = 0;
+        notifyAll();
+    }
+
+    /**
+     * Block until the next mutation is decoded.
+     * @return the next mutation in the commitlog order, or null when the segment is fully decoded.
+     * @throws ExecutionException if the decoding failed.
+     */
+    public synchronized Mutation<T> take() throws InterruptedException, ExecutionException {
+        while (mutations.isEmpty() && !completed && error == null) {
+            wait();
+        }
+        if (error != null) {
+            throw new ExecutionException(error);
+        }
+        Mutation<T> mutation = mutations.poll();
+        if (mutation != null) {
+            bytes -= mutation.estimatedSize();
+            notifyAll();
+        }
+        return mutation;
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,33 @@
+package com.datastax.cassandra.cdc.producer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Jittered exponential backoff between two send attempts.
+ *
+ * The delay doubles on each attempt up to the max delay, and half of it is randomized so that
+ * the retries of concurrent sends do not hit the recovering sink at the same time.
+ */
+public class ExponentialBackoff {
+
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+
+    public ExponentialBackoff(long initialDelayMs, long maxDelayMs) {
+        if (initialDelayMs <= 0 || maxDelayMs < initialDelayMs) {
+            throw new IllegalArgumentException("Invalid backoff initial=" + initialDelayMs + " max=" + maxDelayMs);
+        }
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Return the delay before the given retry attempt, starting at 0.
+     */
+    public long delayMs(int attempt) {
+        int shift = Math.min(Math.max(attempt, 0), 30);
+        long delay = initialDelayMs > (maxDelayMs >> shift) ? maxDelayMs : initialDelayMs << shift;
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+}
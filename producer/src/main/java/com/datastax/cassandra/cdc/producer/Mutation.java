@@ -30,14 +30,25 @@ public class Mutation<T> {
     private long ts;
     private String md5Digest;
     private T metadata;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TableContext tableContext;
 
     public List<CellData> primaryKeyCells() {
         return rowData.primaryKeyCells();
     }
 
+    /**
+     * Rough estimate of the heap size of the decoded mutation.
+     */
+    public long estimatedSize() {
+        return 128L + (rowData == null ? 0 : rowData.estimatedSize()) + (md5Digest == null ? 0 : 40L + 2L * md5Digest.length());
+    }
+
     public MutationValue mutationValue() {
         // TODO: Unfortunately, computing the mutation CRC require to re-serialize it because we cannot get the byte[] from the commitlog reader.
         // So, we use the timestamp here.
-        return new MutationValue(md5Digest, source.nodeId, rowData.nonPrimaryKeyNames());
+        return new MutationValue(md5Digest, source.nodeId, rowData.nonPrimaryKeyNames(),
+                rowData.columnsVersion(), rowData.columnIndexes(), rowData.columnValues());
     }
 }
@@ -10,7 +10,6 @@ import io.debezium.function.BlockingConsumer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
-import java.util.UUID;
 
 /**
  * Responsible for generating ChangeRecord and/or TombstoneRecord for create/update/delete events, as well as EOF events.
@@ -23,43 +22,39 @@ public class MutationMaker<T> {
         this.emitTombstoneOnDelete = PropertyConfig.emitTombstoneOnDelete;
     }
 
-    public void insert(String cluster, UUID node, CommitLogPosition offsetPosition,
-                       String keyspace, String name, boolean snapshot,
+    public void insert(TableContext context, CommitLogPosition offsetPosition, boolean snapshot,
                        Instant tsMicro, RowData data,
                        boolean markOffset, BlockingConsumer<Mutation<T>> consumer,
                        String md5Digest, T t) {
-        createRecord(cluster, node, offsetPosition, keyspace, name, snapshot, tsMicro,
+        createRecord(context, offsetPosition, snapshot, tsMicro,
                 data, markOffset, consumer, md5Digest, t);
     }
 
-    public void update(String cluster, UUID node, CommitLogPosition offsetPosition,
-                       String keyspace, String name, boolean snapshot,
+    public void update(TableContext context, CommitLogPosition offsetPosition, boolean snapshot,
                        Instant tsMicro, RowData data,
                        boolean markOffset, BlockingConsumer<Mutation<T>> consumer,
                        String md5Digest, T t) {
-        createRecord(cluster, node, offsetPosition, keyspace, name, snapshot, tsMicro,
+        createRecord(context, offsetPosition, snapshot, tsMicro,
                 data, markOffset, consumer, md5Digest, t);
     }
 
-    public void delete(String cluster, UUID node, CommitLogPosition offsetPosition,
-                       String keyspace, String name, boolean snapshot,
+    public void delete(TableContext context, CommitLogPosition offsetPosition, boolean snapshot,
                        Instant tsMicro, RowData data,
                        boolean markOffset, BlockingConsumer<Mutation<T>> consumer,
                        String md5Digest, T t) {
-        createRecord(cluster, node, offsetPosition, keyspace, name, snapshot, tsMicro,
+        createRecord(context, offsetPosition, snapshot, tsMicro,
                 data, markOffset, consumer, md5Digest, t);
     }
 
-    private void createRecord(String cluster, UUID node, CommitLogPosition offsetPosition,
-                              String keyspace, String name, boolean snapshot,
+    private void createRecord(TableContext context, CommitLogPosition offsetPosition, boolean snapshot,
                               Instant tsMicro, RowData data,
                               boolean markOffset, BlockingConsumer<Mutation<T>> consumer,
                               String md5Digest, T t) {
         // TODO: filter columns
         RowData filteredData = data;
 
-        SourceInfo source = new SourceInfo(cluster, node, offsetPosition, keyspace, name, tsMicro);
-        Mutation<T> record = new Mutation<T>(offsetPosition, source, filteredData, markOffset, tsMicro.toEpochMilli(), md5Digest, t);
+        SourceInfo source = context.source(offsetPosition, tsMicro);
+        Mutation<T> record = new Mutation<T>(offsetPosition, source, filteredData, markOffset, tsMicro.toEpochMilli(), md5Digest, t, context);
         try {
             consumer.accept(record);
         }
@@ -8,24 +8,56 @@ package com.datastax.cassandra.cdc.producer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Persist the commitlog offset of the last sent mutation.
+ *
+ * The {@link OffsetFlushPolicy} decides when the offset should be flushed, and the flush is done by a
+ * background thread writing the latest offset, so that concurrent flush requests are group-committed
+ * in a single write. The offset is written in a temporary file, synced and atomically renamed,
+ * so a crash never leaves a torn offset file.
+ */
 @Slf4j
 public class OffsetFileWriter implements AutoCloseable {
     public static final String COMMITLOG_OFFSET_FILE = "commitlog_offset.dat";
 
     private final File offsetFile;
+    private final File tmpOffsetFile;
     private AtomicReference<CommitLogPosition> fileOffsetRef = new AtomicReference<>(new CommitLogPosition(0,0));
+    private volatile CommitLogPosition savedOffset = null;
 
     private final OffsetFlushPolicy offsetFlushPolicy;
     volatile long timeOfLastFlush = System.currentTimeMillis();
     volatile Long notCommittedEvents = 0L;
 
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
     public OffsetFileWriter(String cdcLogDir) throws IOException {
-        this.offsetFlushPolicy = new OffsetFlushPolicy.AlwaysFlushOffsetPolicy();
+        this(cdcLogDir, OffsetFlushPolicy.fromConfig());
+    }
+
+    public OffsetFileWriter(String cdcLogDir, OffsetFlushPolicy offsetFlushPolicy) throws IOException {
+        this.offsetFlushPolicy = offsetFlushPolicy;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "offset-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
         /*
         this.meterRegistry.gauge("committed_segment", fileOffsetRef, new ToDoubleFunction<AtomicReference<CommitLogPosition>>() {
             @Override
@@ -42,7 +74,14 @@ public class OffsetFileWriter implements AutoCloseable {
          */
 
         this.offsetFile = new File(cdcLogDir, COMMITLOG_OFFSET_FILE);
+        this.tmpOffsetFile = new File(cdcLogDir, COMMITLOG_OFFSET_FILE + ".tmp");
         init();
+
+        // flush the last offset even if no more mutation is sent
+        if (offsetFlushPolicy instanceof OffsetFlushPolicy.PeriodicFlushOffsetPolicy) {
+            long intervalMs = ((OffsetFlushPolicy.PeriodicFlushOffsetPolicy) offsetFlushPolicy).getOffsetFlushInterval().toMillis();
+            flusher.scheduleWithFixedDelay(this::flushLatestOffset, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
     }
 
     public CommitLogPosition offset() {
@@ -59,6 +98,7 @@ public class OffsetFileWriter implements AutoCloseable {
 
     @Override
     public void close() throws IOException {
+        flusher.shutdown();
         saveOffset();
     }
 
@@ -72,18 +112,68 @@ public class OffsetFileWriter implements AutoCloseable {
     }
 
     private synchronized void saveOffset() throws IOException {
-        try(FileWriter out = new FileWriter(this.offsetFile)) {
-            out.write(serializePosition(fileOffsetRef.get()));
+        CommitLogPosition position = fileOffsetRef.get();
+        if (position.equals(savedOffset)) {
+            return;
+        }
+        try {
+            try (FileChannel channel = FileChannel.open(tmpOffsetFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(serializePosition(position).getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(tmpOffsetFile.toPath(), offsetFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+            savedOffset = position;
         } catch (IOException e) {
             log.error("Failed to save offset for file " + offsetFile.getName(), e);
             throw e;
         }
     }
 
+    /**
+     * Sync the directory to persist the rename, not supported on all platforms.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(offsetFile.getParentFile().toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.trace("Cannot sync directory {}: {}", offsetFile.getParent(), e.toString());
+        }
+    }
+
+    /**
+     * Ask the background flusher to write the latest offset, requests received during a write are group-committed.
+     */
+    void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushLatestOffset);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+                log.debug("Offset flusher stopped, position={} not flushed", fileOffsetRef.get());
+            }
+        }
+    }
+
+    private void flushLatestOffset() {
+        flushRequested.set(false);
+        try {
+            saveOffset();
+            log.debug("Offset flushed position={}", savedOffset);
+        } catch(IOException e) {
+            log.warn("error:", e);
+        }
+    }
+
     private synchronized void loadOffset() throws IOException {
         try(BufferedReader br = new BufferedReader(new FileReader(offsetFile)))
         {
             fileOffsetRef.set(deserializePosition(br.readLine()));
+            savedOffset = fileOffsetRef.get();
             log.debug("file offset={}", fileOffsetRef.get());
         } catch (IOException e) {
             log.error("Failed to load offset for file " + offsetFile.getName(), e);
@@ -103,19 +193,17 @@ public class OffsetFileWriter implements AutoCloseable {
     }
 
     void maybeCommitOffset(Mutation<?> record) {
-        try {
-            long now = System.currentTimeMillis();
-            long timeSinceLastFlush = now - timeOfLastFlush;
-            if(offsetFlushPolicy.shouldFlush(Duration.ofMillis(timeSinceLastFlush), notCommittedEvents)) {
-                SourceInfo source = record.getSource();
-                markOffset(source.commitLogPosition);
-                flush();
-                notCommittedEvents = 0L;
-                timeOfLastFlush = now;
-                log.debug("Offset flushed source=" + source);
-            }
-        } catch(IOException e) {
-            log.warn("error:", e);
+        maybeCommitOffset(record.getSource().commitLogPosition);
+    }
+
+    void maybeCommitOffset(CommitLogPosition position) {
+        long now = System.currentTimeMillis();
+        long timeSinceLastFlush = now - timeOfLastFlush;
+        if(offsetFlushPolicy.shouldFlush(Duration.ofMillis(timeSinceLastFlush), notCommittedEvents)) {
+            markOffset(position);
+            requestFlush();
+            notCommittedEvents = 0L;
+            timeOfLastFlush = now;
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.datastax.cassandra.cdc.producer;
 
 import java.time.Duration;
+import java.util.Locale;
 
 /**
  * This policy determines how frequently the offset is flushed to disk.
@@ -22,6 +23,20 @@ public interface OffsetFlushPolicy {
         return new PeriodicFlushOffsetPolicy(offsetFlushInterval, maxOffsetFlushSize);
     }
 
+    /**
+     * The policy selected by the system properties, always or periodic.
+     */
+    static OffsetFlushPolicy fromConfig() {
+        switch (PropertyConfig.offsetFlushPolicy.toLowerCase(Locale.ROOT)) {
+            case "always":
+                return always();
+            case "periodic":
+                return periodic(Duration.ofMillis(PropertyConfig.offsetFlushIntervalMs), PropertyConfig.maxOffsetFlushSize);
+            default:
+                throw new IllegalArgumentException("Unknown offset flush policy " + PropertyConfig.offsetFlushPolicy);
+        }
+    }
+
     class PeriodicFlushOffsetPolicy implements OffsetFlushPolicy {
         private final Duration offsetFlushInterval;
         private final long maxOffsetFlushSize;
@@ -35,6 +50,10 @@ public interface OffsetFlushPolicy {
         public boolean shouldFlush(Duration timeSinceLastFlush, long numOfRecordsSinceLastFlush) {
             return timeSinceLastFlush.compareTo(offsetFlushInterval) >= 0 || numOfRecordsSinceLastFlush >= this.maxOffsetFlushSize;
         }
+
+        public Duration getOffsetFlushInterval() {
+            return offsetFlushInterval;
+        }
     }
 
     class AlwaysFlushOffsetPolicy implements OffsetFlushPolicy {
@@ -10,7 +10,94 @@ public class PropertyConfig {
     public static final String cdcRelocationDir = System.getProperty(PROPERTY_PREFIX + "cdcRelocationDir",
             storageDir + File.separator + "cdc_backup");
 
-    public static final Long cdcDirPollIntervalMs = Long.getLong(PROPERTY_PREFIX + "cdcPoolIntervalMs", 50000L);
+    /**
+     * Max and min intervals between two scans of the cdc directory, adapted to the commitlog write rate.
+     */
+    public static final Long cdcDirPollIntervalMs = Long.getLong(PROPERTY_PREFIX + "cdcPoolIntervalMs", 5000L);
+    public static final Long cdcDirMinPollIntervalMs = Long.getLong(PROPERTY_PREFIX + "cdcMinPoolIntervalMs", 100L);
+
+    /**
+     * Max number of mutations sent and not yet acknowledged, 1 means a blocking send per mutation.
+     */
+    public static final int maxInflightMutations = Integer.getInteger(PROPERTY_PREFIX + "cdcMaxInflightMutations", 1);
+
+    /**
+     * Algorithm used to compute the mutation digest, MD5 or MURMUR3_128. It must be the same on all nodes.
+     */
+    public static final String mutationDigestAlgorithm = System.getProperty(PROPERTY_PREFIX + "cdcMutationDigest", "MD5");
+
+    /**
+     * Resume reading the active commitlog segment from the last read sync section instead of re-reading it from the beginning.
+     */
+    public static final boolean commitLogTailReadingEnabled = Boolean.parseBoolean(System.getProperty(PROPERTY_PREFIX + "cdcTailReading", "true"));
+
+    /**
+     * Number of immutable commitlog segments decoded in parallel when catching up, 1 disables the parallel decoding.
+     */
+    public static final int catchUpParallelism = Integer.getInteger(PROPERTY_PREFIX + "cdcCatchUpParallelism", 1);
+
+    /**
+     * Max estimated heap size in MB of the mutations decoded ahead of the sent mutations when catching up,
+     * shared evenly by the segments decoded in parallel.
+     */
+    public static final long catchUpMemoryBudgetMb = Long.getLong(PROPERTY_PREFIX + "cdcCatchUpMemoryBudgetMb", 256L);
+
+    /**
+     * Offset flush policy, always flush after each sent mutation, or periodic flush after
+     * cdcOffsetFlushIntervalMs or cdcMaxOffsetFlushSize sent mutations.
+     */
+    public static final String offsetFlushPolicy = System.getProperty(PROPERTY_PREFIX + "cdcOffsetFlushPolicy", "always");
+    public static final long offsetFlushIntervalMs = Long.getLong(PROPERTY_PREFIX + "cdcOffsetFlushIntervalMs", 1000L);
+    public static final long maxOffsetFlushSize = Long.getLong(PROPERTY_PREFIX + "cdcMaxOffsetFlushSize", 10000L);
+
+    /**
+     * Jittered exponential backoff between two attempts to send a mutation.
+     */
+    public static final long retryInitialBackoffMs = Long.getLong(PROPERTY_PREFIX + "cdcRetryInitialBackoffMs", 100L);
+    public static final long retryMaxBackoffMs = Long.getLong(PROPERTY_PREFIX + "cdcRetryMaxBackoffMs", 10000L);
+
+    /**
+     * Consecutive send failures opening the circuit breaker, and its open duration before probing the sink again.
+     */
+    public static final int circuitBreakerFailureThreshold = Integer.getInteger(PROPERTY_PREFIX + "cdcCircuitBreakerFailureThreshold", 5);
+    public static final long circuitBreakerOpenDurationMs = Long.getLong(PROPERTY_PREFIX + "cdcCircuitBreakerOpenDurationMs", 5000L);
+
+    /**
+     * Comma separated include and exclude lists of keyspaces and tables (keyspace.table), and regular expressions
+     * matching keyspace.table. Mutations of the tables not accepted are skipped before being decoded.
+     */
+    public static final String includeKeyspaces = System.getProperty(PROPERTY_PREFIX + "cdcIncludeKeyspaces");
+    public static final String excludeKeyspaces = System.getProperty(PROPERTY_PREFIX + "cdcExcludeKeyspaces");
+    public static final String includeTables = System.getProperty(PROPERTY_PREFIX + "cdcIncludeTables");
+    public static final String excludeTables = System.getProperty(PROPERTY_PREFIX + "cdcExcludeTables");
+    public static final String includeTablesRegex = System.getProperty(PROPERTY_PREFIX + "cdcIncludeTablesRegex");
+    public static final String excludeTablesRegex = System.getProperty(PROPERTY_PREFIX + "cdcExcludeTablesRegex");
+
+    /**
+     * Comma separated list of keyspaces and tables (keyspace.table) in payload mode: the values of the cells
+     * written by an INSERT are added to the mutation event, so that the source can skip the read-back.
+     * Ignored when {@link #maxInflightMutations} is greater than 1, as concurrent sends may reorder the INSERT images,
+     * and unless {@link #primaryReplicaOnly} is enabled, as the images published by other replicas may arrive out of order.
+     */
+    public static final String payloadTables = System.getProperty(PROPERTY_PREFIX + "cdcPayloadTables");
+
+    /**
+     * When enabled, only the primary replica of a partition publishes its mutations rather than all the replicas.
+     * With the fallback, the next live replica publishes the mutations when the primary is down according to gossip.
+     */
+    public static final boolean primaryReplicaOnly = Boolean.getBoolean(PROPERTY_PREFIX + "cdcPrimaryReplicaOnly");
+    public static final boolean primaryReplicaFallback = Boolean.parseBoolean(System.getProperty(PROPERTY_PREFIX + "cdcPrimaryReplicaFallback", "true"));
+
+    /**
+     * Transfer of the processed commit logs, blackhole deletes them and archive moves them to the archive folder
+     * of the relocation directory, where they are compressed (NONE, LZ4 or ZSTD) with a maximum read rate,
+     * and deleted beyond the retention size or age (0 for unlimited).
+     */
+    public static final String commitLogTransfer = System.getProperty(PROPERTY_PREFIX + "cdcCommitLogTransfer", "blackhole");
+    public static final String archiveCompression = System.getProperty(PROPERTY_PREFIX + "cdcArchiveCompression", "LZ4");
+    public static final long archiveMaxMbPerSec = Long.getLong(PROPERTY_PREFIX + "cdcArchiveMaxMbPerSec", 16L);
+    public static final long archiveMaxSizeMb = Long.getLong(PROPERTY_PREFIX + "cdcArchiveMaxSizeMb", 10240L);
+    public static final long archiveMaxAgeMs = Long.getLong(PROPERTY_PREFIX + "cdcArchiveMaxAgeMs", 86400000L);
 
     public static final boolean errorCommitLogReprocessEnabled = Boolean.getBoolean(PROPERTY_PREFIX + "errorCommitLogReprocessEnabled");
 
@@ -21,6 +108,41 @@ public class PropertyConfig {
 
     public static final String pulsarServiceUrl = System.getProperty("pulsarServiceUrl", "pulsar://localhost:6650");
 
+    /**
+     * Pulsar producer pending queue, batching and compression settings, the compression type is NONE, LZ4, ZLIB, ZSTD or SNAPPY.
+     */
+    public static final int pulsarMaxPendingMessages = Integer.getInteger("pulsarMaxPendingMessages", 1000);
+    public static final boolean pulsarBlockIfQueueFull = Boolean.parseBoolean(System.getProperty("pulsarBlockIfQueueFull", "true"));
+    public static final long pulsarSendTimeoutMs = Long.getLong("pulsarSendTimeoutMs", 15000L);
+    public static final int pulsarBatchingMaxMessages = Integer.getInteger("pulsarBatchingMaxMessages", 1000);
+    public static final int pulsarBatchingMaxBytes = Integer.getInteger("pulsarBatchingMaxBytes", 128 * 1024);
+    public static final long pulsarBatchingMaxPublishDelayMs = Long.getLong("pulsarBatchingMaxPublishDelayMs", 1L);
+    public static final String pulsarCompressionType = System.getProperty("pulsarCompressionType", "NONE");
+
+    /**
+     * When enabled, batches are delayed up to pulsarAdaptiveBatchingMaxPublishDelayMs when the reader is behind,
+     * and flushed after pulsarBatchingMaxPublishDelayMs when tailing. The reader is behind when catching up immutable
+     * segments or keeping half of the {@link #maxInflightMutations} window busy, never with a window of 1.
+     */
+    public static final boolean pulsarAdaptiveBatchingEnabled = Boolean.getBoolean("pulsarAdaptiveBatching");
+    public static final long pulsarAdaptiveBatchingMaxPublishDelayMs = Long.getLong("pulsarAdaptiveBatchingMaxPublishDelayMs", 50L);
+
+    /**
+     * Create the producers of all CDC enabled tables when the agent starts reading the commitlogs.
+     */
+    public static final boolean pulsarPrewarmProducers = Boolean.getBoolean("pulsarPrewarmProducers");
+
     public static final String kafkaBrokers = System.getProperty("kafkaBrokers", "localhost:9092");
     public static final String kafkaRegistryUrl = System.getProperty("schemaRegistryUrl", "http://localhost:8081");
+
+    /**
+     * Kafka producer batching, compression and delivery settings, acks and idempotence default to the Kafka client defaults.
+     * Batching only pays off with several mutations in flight: with {@link #maxInflightMutations} of 1, each send would
+     * wait for the linger delay, so linger.ms and batch.size keep the Kafka client defaults.
+     */
+    public static final int kafkaLingerMs = Integer.getInteger("kafkaLingerMs", maxInflightMutations > 1 ? 5 : 0);
+    public static final int kafkaBatchSize = Integer.getInteger("kafkaBatchSize", maxInflightMutations > 1 ? 64 * 1024 : 16 * 1024);
+    public static final String kafkaCompressionType = System.getProperty("kafkaCompressionType", "none");
+    public static final String kafkaAcks = System.getProperty("kafkaAcks", "1");
+    public static final boolean kafkaEnableIdempotence = Boolean.getBoolean("kafkaEnableIdempotence");
 }
@@ -0,0 +1,20 @@
+package com.datastax.cassandra.cdc.producer;
+
+/**
+ * Backlog of the commitlog reader, shared with the mutation senders to adapt their batching.
+ */
+public class ReaderBacklog {
+
+    private static volatile boolean catchingUp = false;
+
+    /**
+     * The reader is reading an immutable segment, or more segments are queued.
+     */
+    public static boolean isCatchingUp() {
+        return catchingUp;
+    }
+
+    public static void setCatchingUp(boolean catchingUp) {
+        ReaderBacklog.catchingUp = catchingUp;
+    }
+}
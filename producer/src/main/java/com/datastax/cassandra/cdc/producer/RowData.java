@@ -5,69 +5,265 @@
  */
 package com.datastax.cassandra.cdc.producer;
 
-import java.util.LinkedHashMap;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
- * Row-level data about the source event. Contains a map where the key is the table column
- * name and the value is the {@link CellData}.
+ * Row-level data about the source event.
+ *
+ * Cells are stored in an array indexed by column position, the primary key columns first in the table order
+ * (partition key then clustering columns), with bitsets flagging the present and the primary key cells.
+ * The primary key view and the non-primary key names, read on each send, are computed once and cached.
+ *
+ * Rows can be reused from a small per-thread pool with {@link #acquire(int)} and {@link #release()},
+ * released rows must not be referenced anymore. A pooled row must be released by the thread that acquired it,
+ * other rows are never pooled.
  */
 public class RowData {
-    private final Map<String, CellData> cellMap = new LinkedHashMap<>();
+    private static final String[] NO_NAMES = new String[0];
+    private static final int MAX_POOLED_ROWS = 64;
+    private static final ThreadLocal<ArrayDeque<RowData>> pool = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private CellData[] cells;
+    private int size;
+    private boolean pooled = false;
+    private final BitSet present = new BitSet();
+    private final BitSet primary = new BitSet();
+
+    // cached views, reset when the cells change
+    private List<CellData> primaryKeyCells;
+    private String[] nonPrimaryKeyNames;
+
+    // mutated regular and static column indexes, see ColumnIndex
+    private Long columnsVersion;
+    private int[] columnIndexes;
+    // optional serialized values of the mutated columns, in the columnIndexes order
+    private byte[][] columnValues;
+
+    public RowData() {
+        this(4);
+    }
+
+    public RowData(int capacity) {
+        this.cells = new CellData[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Return a row from the pool of the current thread, or a new row.
+     * @param capacity the expected number of cells.
+     */
+    public static RowData acquire(int capacity) {
+        RowData rowData = pool.get().poll();
+        if (rowData == null) {
+            rowData = new RowData(capacity);
+            rowData.pooled = true;
+        }
+        return rowData;
+    }
+
+    /**
+     * Clear the row and, if it was acquired from the pool, return it to the pool of the current thread.
+     */
+    public void release() {
+        clear();
+        if (pooled) {
+            ArrayDeque<RowData> rows = pool.get();
+            if (rows.size() < MAX_POOLED_ROWS) {
+                rows.offer(this);
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(cells, 0, size, null);
+        size = 0;
+        present.clear();
+        primary.clear();
+        invalidate();
+        columnsVersion = null;
+        columnIndexes = null;
+        columnValues = null;
+    }
 
+    private void invalidate() {
+        primaryKeyCells = null;
+        nonPrimaryKeyNames = null;
+    }
+
+    /**
+     * Set the cell of the column at the given position.
+     */
+    public void setCell(int position, CellData cellData) {
+        if (position >= cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(position + 1, cells.length * 2));
+        }
+        cells[position] = cellData;
+        present.set(position);
+        primary.set(position, cellData.isPrimary());
+        size = Math.max(size, position + 1);
+        invalidate();
+    }
+
+    /**
+     * Add or replace the cell of a column, new columns are added after the existing ones.
+     */
     public void addCell(CellData cellData) {
-        this.cellMap.put(cellData.name, cellData);
+        int position = position(cellData.name);
+        setCell(position < 0 ? size : position, cellData);
     }
 
     public void removeCell(String columnName) {
-        if (hasCell(columnName)) {
-            cellMap.remove(columnName);
+        int position = position(columnName);
+        if (position >= 0) {
+            cells[position] = null;
+            present.clear(position);
+            primary.clear(position);
+            invalidate();
         }
     }
 
     public boolean hasCell(String columnName) {
-        return cellMap.containsKey(columnName);
+        return position(columnName) >= 0;
+    }
+
+    private int position(String columnName) {
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+            if (cells[i].name.equals(columnName)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     public RowData copy() {
-        RowData copy = new RowData();
-        for (CellData cellData : cellMap.values()) {
-            copy.addCell(cellData);
+        RowData copy = new RowData(size);
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+            copy.setCell(i, cells[i]);
         }
+        copy.setColumnIndexes(columnsVersion, columnIndexes);
+        copy.setColumnValues(columnValues);
         return copy;
     }
 
+    public void setColumnIndexes(Long columnsVersion, int[] columnIndexes) {
+        this.columnsVersion = columnsVersion;
+        this.columnIndexes = columnIndexes;
+    }
+
+    public Long columnsVersion() {
+        return columnsVersion;
+    }
+
+    public int[] columnIndexes() {
+        return columnIndexes;
+    }
+
+    public void setColumnValues(byte[][] columnValues) {
+        this.columnValues = columnValues;
+    }
+
+    public byte[][] columnValues() {
+        return columnValues;
+    }
+
+    /**
+     * Rough estimate of the heap size of the row, counting the cell values and the serialized column values.
+     */
+    public long estimatedSize() {
+        long estimatedSize = 64L + 8L * cells.length;
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+            estimatedSize += 48L + estimatedSize(cells[i].value);
+        }
+        if (columnIndexes != null) {
+            estimatedSize += 16L + 4L * columnIndexes.length;
+        }
+        if (columnValues != null) {
+            for (byte[] columnValue : columnValues) {
+                estimatedSize += 16L + (columnValue == null ? 0 : columnValue.length);
+            }
+        }
+        return estimatedSize;
+    }
+
+    static long estimatedSize(Object value) {
+        if (value instanceof byte[]) {
+            return 16L + ((byte[]) value).length;
+        }
+        if (value instanceof ByteBuffer) {
+            return 48L + ((ByteBuffer) value).remaining();
+        }
+        if (value instanceof String) {
+            return 40L + 2L * ((String) value).length();
+        }
+        return 16L;
+    }
+
     public List<CellData> primaryKeyCells() {
-        return this.cellMap.values().stream().filter(CellData::isPrimary).collect(Collectors.toList());
+        if (primaryKeyCells == null) {
+            CellData[] primaryCells = new CellData[primary.cardinality()];
+            int j = 0;
+            for (int i = primary.nextSetBit(0); i >= 0; i = primary.nextSetBit(i + 1)) {
+                primaryCells[j++] = cells[i];
+            }
+            primaryKeyCells = Collections.unmodifiableList(Arrays.asList(primaryCells));
+        }
+        return primaryKeyCells;
     }
 
     public Object[] primaryKeyValues() {
-        return this.cellMap.values().stream()
-                .filter(CellData::isPrimary)
-                .map(cell->cell.value)
-                .toArray(Object[]::new);
+        List<CellData> primaryCells = primaryKeyCells();
+        Object[] values = new Object[primaryCells.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primaryCells.get(i).value;
+        }
+        return values;
     }
 
     public String[] primaryKeyNames() {
-        return this.cellMap.values().stream()
-                .filter(CellData::isPrimary)
-                .map(cell->cell.name)
-                .toArray(String[]::new);
+        List<CellData> primaryCells = primaryKeyCells();
+        String[] names = new String[primaryCells.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = primaryCells.get(i).name;
+        }
+        return names;
     }
 
     public String[] nonPrimaryKeyNames() {
-        return this.cellMap.values().stream()
-                .filter(cd -> !cd.isPrimary())
-                .map(cell->cell.name)
-                .toArray(String[]::new);
+        if (nonPrimaryKeyNames == null) {
+            int count = present.cardinality() - primary.cardinality();
+            if (count == 0) {
+                nonPrimaryKeyNames = NO_NAMES;
+            } else {
+                String[] names = new String[count];
+                int j = 0;
+                for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                    if (!primary.get(i)) {
+                        names[j++] = cells[i].name;
+                    }
+                }
+                nonPrimaryKeyNames = names;
+            }
+        }
+        return nonPrimaryKeyNames;
+    }
+
+    private List<CellData> presentCells() {
+        List<CellData> list = new ArrayList<>(present.cardinality());
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+            list.add(cells[i]);
+        }
+        return list;
     }
 
     @Override
     public String toString() {
-        return this.cellMap.toString();
+        return presentCells().toString();
     }
 
     @Override
@@ -79,11 +275,11 @@ public class RowData {
             return false;
         }
         RowData rowData = (RowData) o;
-        return Objects.equals(cellMap, rowData.cellMap);
+        return Objects.equals(presentCells(), rowData.presentCells());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(cellMap);
+        return presentCells().hashCode();
     }
 }
@@ -0,0 +1,97 @@
+package com.datastax.cassandra.cdc.producer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded window of in-flight mutations.
+ *
+ * Mutations enter the window in commitlog order and may be acknowledged in any order. The offset
+ * only advances to the highest contiguous acknowledged {@link CommitLogPosition}, so after a crash
+ * the commitlog is replayed from a position where no unacknowledged mutation is skipped.
+ * A slot is released when the offset moves past it, so the window also bounds how far acknowledged
+ * mutations can run ahead of the oldest pending one.
+ */
+@Slf4j
+public class SendWindow {
+
+    /**
+     * An in-flight mutation.
+     */
+    public static class Slot {
+        final CommitLogPosition position;
+        boolean acked = false;
+
+        Slot(CommitLogPosition position) {
+            this.position = position;
+        }
+    }
+
+    private final int size;
+    private final Semaphore permits;
+    private final ArrayDeque<Slot> slots;
+    private final OffsetFileWriter offsetFileWriter;
+
+    public SendWindow(int size, OffsetFileWriter offsetFileWriter) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1, got " + size);
+        }
+        this.size = size;
+        this.permits = new Semaphore(size);
+        this.slots = new ArrayDeque<>(size);
+        this.offsetFileWriter = offsetFileWriter;
+    }
+
+    /**
+     * Block until a slot is available, then register a mutation at the given position.
+     */
+    public Slot acquire(CommitLogPosition position) throws InterruptedException {
+        permits.acquire();
+        Slot slot = new Slot(position);
+        synchronized (slots) {
+            slots.addLast(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Acknowledge a slot, advance the offset to the highest contiguous acknowledged position
+     * and release the slots behind it.
+     */
+    public void ack(Slot slot) {
+        synchronized (slots) {
+            slot.acked = true;
+            CommitLogPosition contiguous = null;
+            int released = 0;
+            while (!slots.isEmpty() && slots.peekFirst().acked) {
+                contiguous = slots.pollFirst().position;
+                released++;
+            }
+            if (contiguous != null) {
+                offsetFileWriter.markOffset(contiguous);
+                offsetFileWriter.notCommittedEvents += released;
+                offsetFileWriter.maybeCommitOffset(contiguous);
+                permits.release(released);
+                log.trace("Window advanced to position={} released={}", contiguous, released);
+            }
+        }
+    }
+
+    /**
+     * Wait for all in-flight mutations to be acknowledged.
+     */
+    public void drain() throws InterruptedException {
+        permits.acquire(size);
+        permits.release(size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int inflight() {
+        return size - permits.availablePermits();
+    }
+}
@@ -0,0 +1,73 @@
+package com.datastax.cassandra.cdc.producer;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Per-table constants of the mutations, resolved once per table schema and shared by all its mutations:
+ * the node identity, the interned keyspace and table names, the topic name and the sender state of the table
+ * (producer, key schema), so that sending a mutation neither resolves nor concatenates them again.
+ *
+ * The node identity is resolved on first use, as it is not known yet early in the node startup.
+ */
+public class TableContext {
+    public final String cluster;
+    public final String keyspace;
+    public final String table;
+    public final String topicName;
+
+    private final Supplier<UUID> nodeIdSupplier;
+    private volatile UUID nodeId;
+    private volatile Object senderContext;
+
+    public TableContext(String cluster, UUID nodeId, String keyspace, String table) {
+        this(cluster, () -> nodeId, keyspace, table);
+    }
+
+    public TableContext(String cluster, Supplier<UUID> nodeIdSupplier, String keyspace, String table) {
+        this.cluster = cluster;
+        this.nodeIdSupplier = nodeIdSupplier;
+        this.keyspace = keyspace.intern();
+        this.table = table.intern();
+        this.topicName = PropertyConfig.topicPrefix + keyspace + "." + table;
+    }
+
+    /**
+     * Return the node identity, null until it is known.
+     */
+    public UUID nodeId() {
+        UUID id = nodeId;
+        if (id == null) {
+            id = nodeIdSupplier.get();
+            nodeId = id;
+        }
+        return id;
+    }
+
+    /**
+     * Return the source of a mutation of this table.
+     */
+    public SourceInfo source(CommitLogPosition position, Instant timestamp) {
+        return new SourceInfo(cluster, nodeId(), position, keyspace, table, timestamp);
+    }
+
+    /**
+     * Return the state of the sender for this table, created by the factory on the first call.
+     */
+    @SuppressWarnings("unchecked")
+    public <C> C senderContext(Function<TableContext, C> factory) {
+        Object context = senderContext;
+        if (context == null) {
+            synchronized (this) {
+                context = senderContext;
+                if (context == null) {
+                    context = factory.apply(this);
+                    senderContext = context;
+                }
+            }
+        }
+        return (C) context;
+    }
+}
@@ -0,0 +1,82 @@
+package com.datastax.cassandra.cdc.producer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Include and exclude lists of the CDC tables.
+ *
+ * A table is accepted when it matches one of the include rules, or when there is no include rule,
+ * and it does not match any of the exclude rules. Rules are keyspace names, fully qualified
+ * table names (keyspace.table) and regular expressions matching the fully qualified table name.
+ */
+public class TableFilter {
+
+    private final Set<String> includeKeyspaces;
+    private final Set<String> excludeKeyspaces;
+    private final Set<String> includeTables;
+    private final Set<String> excludeTables;
+    private final Pattern includeRegex;
+    private final Pattern excludeRegex;
+
+    public TableFilter(Set<String> includeKeyspaces, Set<String> excludeKeyspaces,
+                       Set<String> includeTables, Set<String> excludeTables,
+                       Pattern includeRegex, Pattern excludeRegex) {
+        this.includeKeyspaces = includeKeyspaces;
+        this.excludeKeyspaces = excludeKeyspaces;
+        this.includeTables = includeTables;
+        this.excludeTables = excludeTables;
+        this.includeRegex = includeRegex;
+        this.excludeRegex = excludeRegex;
+    }
+
+    public static TableFilter fromConfig() {
+        return new TableFilter(
+                toSet(PropertyConfig.includeKeyspaces),
+                toSet(PropertyConfig.excludeKeyspaces),
+                toSet(PropertyConfig.includeTables),
+                toSet(PropertyConfig.excludeTables),
+                toPattern(PropertyConfig.includeTablesRegex),
+                toPattern(PropertyConfig.excludeTablesRegex));
+    }
+
+    static Set<String> toSet(String list) {
+        if (list == null || list.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(list.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    static Pattern toPattern(String regex) {
+        return regex == null || regex.isEmpty() ? null : Pattern.compile(regex);
+    }
+
+    /**
+     * True when the filter accepts all tables.
+     */
+    public boolean acceptAll() {
+        return includeKeyspaces.isEmpty() && excludeKeyspaces.isEmpty()
+                && includeTables.isEmpty() && excludeTables.isEmpty()
+                && includeRegex == null && excludeRegex == null;
+    }
+
+    public boolean accept(String keyspace, String table) {
+        String qualifiedName = keyspace + "." + table;
+        boolean hasIncludeRule = !includeKeyspaces.isEmpty() || !includeTables.isEmpty() || includeRegex != null;
+        if (hasIncludeRule
+                && !includeKeyspaces.contains(keyspace)
+                && !includeTables.contains(qualifiedName)
+                && !(includeRegex != null && includeRegex.matcher(qualifiedName).matches())) {
+            return false;
+        }
+        return !excludeKeyspaces.contains(keyspace)
+                && !excludeTables.contains(qualifiedName)
+                && !(excludeRegex != null && excludeRegex.matcher(qualifiedName).matches());
+    }
+}
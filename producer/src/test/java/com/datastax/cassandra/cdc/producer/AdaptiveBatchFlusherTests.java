@@ -0,0 +1,60 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveBatchFlusherTests {
+
+    @Test
+    public final void testBlockingSendNeverBehind() {
+        AtomicBoolean catchingUp = new AtomicBoolean(true);
+        try (AdaptiveBatchFlusher flusher = new AdaptiveBatchFlusher(1, 1, catchingUp::get, () -> {})) {
+            assertFalse(flusher.behind(1));
+            assertFalse(flusher.behind(1000));
+        }
+    }
+
+    @Test
+    public final void testBehind() {
+        AtomicBoolean catchingUp = new AtomicBoolean(false);
+        try (AdaptiveBatchFlusher flusher = new AdaptiveBatchFlusher(1, 64, catchingUp::get, () -> {})) {
+            // tailing until the window is half full
+            assertFalse(flusher.behind(1));
+            assertFalse(flusher.behind(31));
+            assertTrue(flusher.behind(32));
+
+            catchingUp.set(true);
+            assertTrue(flusher.behind(1));
+        }
+    }
+
+    @Test
+    public final void testFlushWhenTailing() throws Exception {
+        AtomicBoolean catchingUp = new AtomicBoolean(false);
+        AtomicInteger flushes = new AtomicInteger();
+        CountDownLatch flushed = new CountDownLatch(1);
+        try (AdaptiveBatchFlusher flusher = new AdaptiveBatchFlusher(1, 64, catchingUp::get, () -> {
+            flushes.incrementAndGet();
+            flushed.countDown();
+        })) {
+            flusher.onSend();
+            assertTrue(flushed.await(10, TimeUnit.SECONDS));
+            flusher.onComplete();
+            assertEquals(0, flusher.pendingMessages());
+
+            // batches are not flushed early when catching up
+            catchingUp.set(true);
+            flusher.onSend();
+            Thread.sleep(50);
+            assertEquals(1, flushes.get());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.datastax.cassandra.cdc.producer;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArchiveCommitLogTransferTests {
+
+    static byte[] segment(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        // compressible half
+        Arrays.fill(bytes, size / 2, size, (byte) 0);
+        return bytes;
+    }
+
+    static File awaitFile(File file) throws InterruptedException {
+        for (int i = 0; i < 500 && !file.exists(); i++) {
+            Thread.sleep(10);
+        }
+        return file;
+    }
+
+    @Test
+    public final void testArchive() throws Exception {
+        File cdcDir = Files.createTempDirectory("cdc_raw").toFile();
+        File relocationDir = Files.createTempDirectory("cdc_backup").toFile();
+        byte[] bytes = segment(200 * 1024);
+        File segment = new File(cdcDir, "CommitLog-7-1.log");
+        Files.write(segment.toPath(), bytes);
+
+        try (ArchiveCommitLogTransfer transfer = new ArchiveCommitLogTransfer(cdcDir, relocationDir,
+                ArchiveCommitLogTransfer.Compression.LZ4, 0, 0, 0)) {
+            transfer.onSuccessTransfer(segment);
+            assertFalse(segment.exists());
+
+            File archive = awaitFile(new File(relocationDir, "archive/CommitLog-7-1.log.lz4"));
+            assertTrue(archive.exists());
+            assertTrue(archive.length() < bytes.length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream in = new LZ4BlockInputStream(new FileInputStream(archive))) {
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                }
+            }
+            assertArrayEquals(bytes, out.toByteArray());
+
+            // error commitlogs are moved back for reprocessing
+            File failed = new File(cdcDir, "CommitLog-7-2.log");
+            Files.write(failed.toPath(), bytes);
+            transfer.onErrorTransfer(failed);
+            assertTrue(new File(relocationDir, "error/CommitLog-7-2.log").exists());
+            transfer.getErrorCommitLogFiles();
+            assertTrue(failed.exists());
+        }
+    }
+
+    @Test
+    public final void testRetention() throws Exception {
+        File cdcDir = Files.createTempDirectory("cdc_raw").toFile();
+        File relocationDir = Files.createTempDirectory("cdc_backup").toFile();
+        File archiveDir = new File(relocationDir, ArchiveCommitLogTransfer.ARCHIVE_FOLDER);
+
+        try (ArchiveCommitLogTransfer transfer = new ArchiveCommitLogTransfer(cdcDir, relocationDir,
+                ArchiveCommitLogTransfer.Compression.NONE, 250 * 1024, 3600_000L, 0)) {
+            for (int i = 1; i <= 3; i++) {
+                File segment = new File(cdcDir, "CommitLog-7-" + i + ".log");
+                Files.write(segment.toPath(), segment(100 * 1024));
+                transfer.onSuccessTransfer(segment);
+            }
+            // an old archive is deleted
+            File old = new File(archiveDir, "CommitLog-7-10.log");
+            Files.write(old.toPath(), new byte[10]);
+            old.setLastModified(System.currentTimeMillis() - 7200_000L);
+
+            transfer.applyRetention();
+            assertFalse(new File(archiveDir, "CommitLog-7-1.log").exists());
+            assertTrue(new File(archiveDir, "CommitLog-7-2.log").exists());
+            assertTrue(new File(archiveDir, "CommitLog-7-3.log").exists());
+            assertFalse(old.exists());
+            assertEquals(2, archiveDir.list().length);
+        }
+    }
+
+    @Test
+    public final void testThrottle() throws Exception {
+        File dir = Files.createTempDirectory("cdc").toFile();
+        try (ArchiveCommitLogTransfer transfer = new ArchiveCommitLogTransfer(dir, dir,
+                ArchiveCommitLogTransfer.Compression.NONE, 0, 0, 1024 * 1024)) {
+            long start = System.nanoTime();
+            transfer.throttle(100 * 1024, start);
+            assertTrue(System.nanoTime() - start >= 90_000_000L);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CdcIndexScannerTests {
+
+    @Test
+    public final void testScan() throws Exception {
+        File cdcDir = Files.createTempDirectory("cdc_raw").toFile();
+        File idx1 = new File(cdcDir, "CommitLog-7-1_cdc.idx");
+        File idx2 = new File(cdcDir, "CommitLog-7-2_cdc.idx");
+        Files.write(idx1.toPath(), "1024".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(cdcDir, "CommitLog-7-1.log").toPath(), new byte[0]);
+
+        CdcIndexScanner scanner = new CdcIndexScanner(cdcDir);
+        assertEquals(Collections.singletonList(idx1), scanner.scan());
+        assertEquals(Collections.emptyList(), scanner.scan());
+
+        Files.write(idx2.toPath(), "10".getBytes(StandardCharsets.UTF_8));
+        Files.write(idx1.toPath(), "1024\nCOMPLETED".getBytes(StandardCharsets.UTF_8));
+        List<File> changed = scanner.scan();
+        assertEquals(2, changed.size());
+        assertEquals(idx1, changed.get(0));
+        assertEquals(idx2, changed.get(1));
+
+        // same size, newer modification time
+        idx2.setLastModified(idx2.lastModified() + 1000);
+        assertEquals(Collections.singletonList(idx2), scanner.scan());
+
+        idx1.delete();
+        assertEquals(Collections.emptyList(), scanner.scan());
+    }
+
+    @Test
+    public final void testAdaptivePollInterval() {
+        AdaptivePollInterval pollInterval = new AdaptivePollInterval(100, 1000);
+        assertEquals(100, pollInterval.get());
+        assertEquals(200, pollInterval.update(false));
+        assertEquals(400, pollInterval.update(false));
+        assertEquals(800, pollInterval.update(false));
+        assertEquals(1000, pollInterval.update(false));
+        assertEquals(100, pollInterval.update(true));
+    }
+
+    @Test
+    public final void testMinPollIntervalClamped() {
+        // cdcPoolIntervalMs configured below the default cdcMinPoolIntervalMs
+        AdaptivePollInterval pollInterval = new AdaptivePollInterval(100, 50);
+        assertEquals(50, pollInterval.get());
+        assertEquals(50, pollInterval.update(false));
+        assertEquals(50, pollInterval.update(true));
+    }
+}
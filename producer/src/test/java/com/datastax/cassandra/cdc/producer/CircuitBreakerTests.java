@@ -0,0 +1,94 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CircuitBreakerTests {
+
+    @Test
+    public final void testBackoff() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 1000);
+        for (int attempt = 0; attempt < 100; attempt++) {
+            long max = Math.min(1000, 100L << Math.min(attempt, 30));
+            long delay = backoff.delayMs(attempt);
+            assertTrue(delay >= max / 2 && delay <= max, "attempt=" + attempt + " delay=" + delay);
+        }
+    }
+
+    /**
+     * Wait until the thread is blocked in the circuit breaker.
+     */
+    static void awaitBlocked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(thread.isAlive());
+            Thread.sleep(1);
+        }
+    }
+
+    static Thread acquireAsync(CircuitBreaker circuitBreaker, AtomicBoolean acquired) {
+        Thread thread = new Thread(() -> {
+            try {
+                circuitBreaker.acquire();
+                acquired.set(true);
+            } catch (InterruptedException e) {
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public final void testCircuitBreaker() throws Exception {
+        // an open breaker is immediately half-open
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, 0);
+        circuitBreaker.acquire();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+        // the first acquire is the probe, a failed probe re-opens the breaker
+        circuitBreaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+        // other senders wait for the probe result, a successful probe closes the breaker
+        circuitBreaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread sender = acquireAsync(circuitBreaker, acquired);
+        awaitBlocked(sender);
+        assertFalse(acquired.get());
+        circuitBreaker.onSuccess();
+        sender.join();
+        assertTrue(acquired.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    public final void testOpenCircuitBreaker() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, TimeUnit.HOURS.toMillis(1));
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+        // blocked while open, a success from a retried send closes the breaker and releases the reader
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread reader = acquireAsync(circuitBreaker, acquired);
+        awaitBlocked(reader);
+        assertFalse(acquired.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        circuitBreaker.onSuccess();
+        reader.join();
+        assertTrue(acquired.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+}
@@ -0,0 +1,101 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecodedMutationsTests {
+
+    static Mutation<Object> mutation(int position) {
+        RowData rowData = new RowData();
+        rowData.addCell(new CellData("id", new byte[1024], null, CellData.ColumnType.PARTITION));
+        return new Mutation<>(new CommitLogPosition(1, position), null, rowData, true, 0L, "digest" + position, null, null);
+    }
+
+    @Test
+    public final void testBoundedByEstimatedSize() throws Exception {
+        Mutation<Object> mutation = mutation(0);
+        assertTrue(mutation.estimatedSize() > 1024);
+        DecodedMutations<Object> mutations = new DecodedMutations<>(3 * mutation.estimatedSize());
+        AtomicInteger decoded = new AtomicInteger();
+        Thread decoder = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10; i++) {
+                    mutations.put(mutation(i));
+                    decoded.incrementAndGet();
+                }
+                mutations.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "decoder");
+        decoder.setDaemon(true);
+        decoder.start();
+
+        // the decoder blocks once the budget is used
+        while (decoded.get() < 3) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals(3, decoded.get());
+        assertTrue(mutations.bytes() <= 3 * mutation.estimatedSize());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(new CommitLogPosition(1, i), mutations.take().getCommitLogPosition());
+        }
+        assertNull(mutations.take());
+        decoder.join(10000);
+        assertFalse(decoder.isAlive());
+        assertEquals(0, mutations.bytes());
+    }
+
+    @Test
+    public final void testLargeMutation() throws Exception {
+        DecodedMutations<Object> mutations = new DecodedMutations<>(1);
+        Mutation<Object> mutation = mutation(0);
+        mutations.put(mutation);
+        mutations.complete();
+        assertSame(mutation, mutations.take());
+        assertNull(mutations.take());
+    }
+
+    @Test
+    public final void testCloseUnblocksDecoder() throws Exception {
+        DecodedMutations<Object> mutations = new DecodedMutations<>(1);
+        mutations.put(mutation(0));
+        Thread decoder = new Thread(() -> {
+            try {
+                mutations.put(mutation(1));
+                mutations.put(mutation(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "decoder");
+        decoder.setDaemon(true);
+        decoder.start();
+        Thread.sleep(100);
+        assertTrue(decoder.isAlive());
+
+        mutations.close();
+        decoder.join(10000);
+        assertFalse(decoder.isAlive());
+        assertEquals(0, mutations.bytes());
+    }
+
+    @Test
+    public final void testDecodingError() throws Exception {
+        DecodedMutations<Object> mutations = new DecodedMutations<>(1024 * 1024);
+        mutations.put(mutation(0));
+        mutations.fail(new IllegalStateException("corrupted segment"));
+        ExecutionException e = assertThrows(ExecutionException.class, mutations::take);
+        assertEquals("corrupted segment", e.getCause().getMessage());
+    }
+}
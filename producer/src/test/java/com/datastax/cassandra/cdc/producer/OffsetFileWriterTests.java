@@ -0,0 +1,55 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class OffsetFileWriterTests {
+
+    static CommitLogPosition readOffsetFile(File dir) throws Exception {
+        byte[] bytes = Files.readAllBytes(new File(dir, OffsetFileWriter.COMMITLOG_OFFSET_FILE).toPath());
+        return OffsetFileWriter.deserializePosition(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public final void testGroupCommit() throws Exception {
+        File dir = Files.createTempDirectory("cdc").toFile();
+        OffsetFileWriter offsetFileWriter = new OffsetFileWriter(dir.getAbsolutePath(), OffsetFlushPolicy.always());
+        assertEquals(new CommitLogPosition(0, 0), readOffsetFile(dir));
+
+        for (int i = 1; i <= 100; i++) {
+            offsetFileWriter.maybeCommitOffset(new CommitLogPosition(1, i));
+        }
+        // the background flusher eventually writes the latest position
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!new CommitLogPosition(1, 100).equals(readOffsetFile(dir)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(new CommitLogPosition(1, 100), readOffsetFile(dir));
+        assertFalse(new File(dir, OffsetFileWriter.COMMITLOG_OFFSET_FILE + ".tmp").exists());
+        offsetFileWriter.close();
+
+        OffsetFileWriter reloaded = new OffsetFileWriter(dir.getAbsolutePath(), OffsetFlushPolicy.always());
+        assertEquals(new CommitLogPosition(1, 100), reloaded.offset());
+        reloaded.close();
+    }
+
+    @Test
+    public final void testPeriodicFlush() throws Exception {
+        File dir = Files.createTempDirectory("cdc").toFile();
+        OffsetFileWriter offsetFileWriter = new OffsetFileWriter(dir.getAbsolutePath(), OffsetFlushPolicy.periodic(Duration.ofMillis(100), 1000));
+        offsetFileWriter.markOffset(new CommitLogPosition(2, 10));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!new CommitLogPosition(2, 10).equals(readOffsetFile(dir)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(new CommitLogPosition(2, 10), readOffsetFile(dir));
+        offsetFileWriter.close();
+    }
+}
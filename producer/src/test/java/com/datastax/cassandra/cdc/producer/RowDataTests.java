@@ -0,0 +1,61 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RowDataTests {
+
+    @Test
+    public final void testCells() {
+        CellData pk = new CellData("id", 1, null, CellData.ColumnType.PARTITION);
+        CellData ck = new CellData("ts", 2L, null, CellData.ColumnType.CLUSTERING);
+        CellData regular = new CellData("value", "a", null, CellData.ColumnType.REGULAR);
+
+        RowData row = new RowData(2);
+        row.setCell(1, ck);
+        row.setCell(0, pk);
+        row.addCell(regular);
+        assertEquals(Arrays.asList(pk, ck), row.primaryKeyCells());
+        assertSame(row.primaryKeyCells(), row.primaryKeyCells());
+        assertArrayEquals(new String[] { "id", "ts" }, row.primaryKeyNames());
+        assertArrayEquals(new Object[] { 1, 2L }, row.primaryKeyValues());
+        assertArrayEquals(new String[] { "value" }, row.nonPrimaryKeyNames());
+        assertEquals(row, row.copy());
+
+        row.removeCell("value");
+        assertFalse(row.hasCell("value"));
+        assertEquals(0, row.nonPrimaryKeyNames().length);
+        assertTrue(row.hasCell("ts"));
+    }
+
+    @Test
+    public final void testPool() {
+        RowData row = RowData.acquire(1);
+        row.setCell(0, new CellData("id", 1, null, CellData.ColumnType.PARTITION));
+        row.setColumnIndexes(1L, new int[] { 0 });
+        row.release();
+
+        RowData reused = RowData.acquire(1);
+        assertSame(row, reused);
+        assertEquals(0, reused.primaryKeyCells().size());
+        assertNull(reused.columnIndexes());
+    }
+
+    @Test
+    public final void testNotPooled() {
+        RowData row = new RowData(1);
+        row.setCell(0, new CellData("id", 1, null, CellData.ColumnType.PARTITION));
+        row.release();
+        assertEquals(0, row.primaryKeyCells().size());
+        assertNotSame(row, RowData.acquire(1));
+    }
+}
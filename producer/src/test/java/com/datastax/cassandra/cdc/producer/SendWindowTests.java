@@ -0,0 +1,47 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SendWindowTests {
+
+    @Test
+    public final void testContiguousOffset() throws Exception {
+        OffsetFileWriter offsetFileWriter = new OffsetFileWriter(Files.createTempDirectory("cdc").toString());
+        SendWindow sendWindow = new SendWindow(4, offsetFileWriter);
+
+        SendWindow.Slot slot1 = sendWindow.acquire(new CommitLogPosition(1, 10));
+        SendWindow.Slot slot2 = sendWindow.acquire(new CommitLogPosition(1, 20));
+        SendWindow.Slot slot3 = sendWindow.acquire(new CommitLogPosition(1, 30));
+        assertEquals(3, sendWindow.inflight());
+
+        // out of order ack does not move the offset
+        sendWindow.ack(slot3);
+        sendWindow.ack(slot2);
+        assertEquals(new CommitLogPosition(0, 0), offsetFileWriter.offset());
+        assertEquals(3, sendWindow.inflight());
+
+        sendWindow.ack(slot1);
+        assertEquals(new CommitLogPosition(1, 30), offsetFileWriter.offset());
+        assertEquals(0, sendWindow.inflight());
+        sendWindow.drain();
+    }
+
+    @Test
+    public final void testSamePosition() throws Exception {
+        OffsetFileWriter offsetFileWriter = new OffsetFileWriter(Files.createTempDirectory("cdc").toString());
+        SendWindow sendWindow = new SendWindow(2, offsetFileWriter);
+
+        // rows of a batch share the commitlog position of their mutation
+        SendWindow.Slot slot1 = sendWindow.acquire(new CommitLogPosition(2, 10));
+        SendWindow.Slot slot2 = sendWindow.acquire(new CommitLogPosition(2, 10));
+        sendWindow.ack(slot1);
+        assertEquals(new CommitLogPosition(2, 10), offsetFileWriter.offset());
+        assertEquals(1, sendWindow.inflight());
+        sendWindow.ack(slot2);
+        assertEquals(0, sendWindow.inflight());
+    }
+}
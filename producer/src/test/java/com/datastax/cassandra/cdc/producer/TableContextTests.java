@@ -0,0 +1,57 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TableContextTests {
+
+    @Test
+    public final void testContext() {
+        UUID nodeId = UUID.randomUUID();
+        TableContext context = new TableContext("cluster1", nodeId, new String("ks1"), new String("table1"));
+        assertEquals(PropertyConfig.topicPrefix + "ks1.table1", context.topicName);
+        assertSame("ks1", context.keyspace);
+        assertSame("table1", context.table);
+
+        CommitLogPosition position = new CommitLogPosition(1, 2);
+        Instant now = Instant.now();
+        assertEquals(new SourceInfo("cluster1", nodeId, position, "ks1", "table1", now), context.source(position, now));
+    }
+
+    @Test
+    public final void testLazyNodeId() {
+        // the node id is not known early in the node startup
+        AtomicReference<UUID> localHostId = new AtomicReference<>();
+        AtomicInteger resolved = new AtomicInteger();
+        TableContext context = new TableContext("cluster1", () -> {
+            resolved.incrementAndGet();
+            return localHostId.get();
+        }, "ks1", "table1");
+        CommitLogPosition position = new CommitLogPosition(1, 2);
+        assertNull(context.source(position, Instant.now()).nodeId);
+
+        UUID nodeId = UUID.randomUUID();
+        localHostId.set(nodeId);
+        assertEquals(nodeId, context.source(position, Instant.now()).nodeId);
+        assertEquals(nodeId, context.nodeId());
+        assertEquals(2, resolved.get());
+    }
+
+    @Test
+    public final void testSenderContext() {
+        TableContext context = new TableContext("cluster1", UUID.randomUUID(), "ks1", "table1");
+        AtomicInteger created = new AtomicInteger();
+        String first = context.senderContext(c -> c.topicName + created.incrementAndGet());
+        String second = context.senderContext(c -> c.topicName + created.incrementAndGet());
+        assertSame(first, second);
+        assertEquals(1, created.get());
+    }
+}
@@ -0,0 +1,49 @@
+package com.datastax.cassandra.cdc.producer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableFilterTests {
+
+    @Test
+    public final void testAcceptAll() {
+        TableFilter filter = new TableFilter(Collections.emptySet(), Collections.emptySet(),
+                Collections.emptySet(), Collections.emptySet(), null, null);
+        assertTrue(filter.acceptAll());
+        assertTrue(filter.accept("ks1", "table1"));
+    }
+
+    @Test
+    public final void testIncludeExclude() {
+        TableFilter filter = new TableFilter(
+                TableFilter.toSet("ks1, ks2"),
+                Collections.emptySet(),
+                TableFilter.toSet("ks3.table1"),
+                TableFilter.toSet("ks1.secret"),
+                TableFilter.toPattern("ks4\\.audit_.*"),
+                TableFilter.toPattern(".*_tmp"));
+        assertFalse(filter.acceptAll());
+        assertTrue(filter.accept("ks1", "table1"));
+        assertTrue(filter.accept("ks2", "table1"));
+        assertFalse(filter.accept("ks1", "secret"));
+        assertFalse(filter.accept("ks2", "table1_tmp"));
+        assertTrue(filter.accept("ks3", "table1"));
+        assertFalse(filter.accept("ks3", "table2"));
+        assertTrue(filter.accept("ks4", "audit_log"));
+        assertFalse(filter.accept("ks4", "users"));
+    }
+
+    @Test
+    public final void testExcludeOnly() {
+        TableFilter filter = new TableFilter(Collections.emptySet(), TableFilter.toSet("ks1"),
+                Collections.emptySet(), Collections.emptySet(), null, Pattern.compile("ks2\\..*"));
+        assertFalse(filter.accept("ks1", "table1"));
+        assertFalse(filter.accept("ks2", "table1"));
+        assertTrue(filter.accept("ks3", "table1"));
+    }
+}
@@ -99,6 +99,16 @@ public class CassandraSourceConnectorConfig {
 
     static final String IGNORE_ERRORS = "ignoreErrors";
 
+    public static final String COLUMN_PROJECTION_OPT = "columnProjection";
+
+    public static final String READ_BACK_CONCURRENCY_OPT = "readBackConcurrency";
+
+    public static final String CACHE_MAX_DIGESTS_OPT = "cacheMaxDigests";
+    public static final String CACHE_MAX_MEMORY_MB_OPT = "cacheMaxMemoryMb";
+    public static final String CACHE_EXPIRE_AFTER_MS_OPT = "cacheExpireAfterMs";
+    public static final String CACHE_SNAPSHOT_FILE_OPT = "cacheSnapshotFile";
+    public static final String CACHE_SNAPSHOT_PERIOD_MS_OPT = "cacheSnapshotPeriodMs";
+
     public static final String SECURE_CONNECT_BUNDLE_OPT = "cloud.secureConnectBundle";
     static final String SECURE_CONNECT_BUNDLE_DRIVER_SETTING =
             withDriverPrefix(DefaultDriverOption.CLOUD_SECURE_CONNECT_BUNDLE);
@@ -237,7 +247,55 @@ public class CassandraSourceConnectorConfig {
                             ConfigDef.Type.STRING,
                             "",
                             ConfigDef.Importance.HIGH,
-                            "The location of the cloud secure bundle used to connect to Datastax Apache Cassandra as a service.");
+                            "The location of the cloud secure bundle used to connect to Datastax Apache Cassandra as a service.")
+                    .define(
+                            COLUMN_PROJECTION_OPT,
+                            ConfigDef.Type.BOOLEAN,
+                            false,
+                            ConfigDef.Importance.LOW,
+                            "Whether to only read back the primary key and the columns updated by the mutation, when the events provide them")
+                    .define(
+                            READ_BACK_CONCURRENCY_OPT,
+                            ConfigDef.Type.INT,
+                            16,
+                            ConfigDef.Range.atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            "The maximum number of rows read back concurrently for a poll batch, 1 to read them one at a time. "
+                                    + "Mutations of the same primary key are read back in order. Defaults to 16, like the Pulsar source")
+                    .define(
+                            CACHE_MAX_DIGESTS_OPT,
+                            ConfigDef.Type.INT,
+                            3,
+                            ConfigDef.Range.atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            "The maximum number of mutation digests kept per primary key to deduplicate the mutations replicated on several nodes")
+                    .define(
+                            CACHE_MAX_MEMORY_MB_OPT,
+                            ConfigDef.Type.LONG,
+                            128L,
+                            ConfigDef.Range.atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            "The estimated maximum memory in megabytes of the mutation deduplication cache")
+                    .define(
+                            CACHE_EXPIRE_AFTER_MS_OPT,
+                            ConfigDef.Type.LONG,
+                            3600000L,
+                            ConfigDef.Range.atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            "The retention in milliseconds of the mutation digests in the deduplication cache")
+                    .define(
+                            CACHE_SNAPSHOT_FILE_OPT,
+                            ConfigDef.Type.STRING,
+                            "",
+                            ConfigDef.Importance.LOW,
+                            "The local file where the mutation deduplication cache is saved and reloaded on restart, disabled when empty")
+                    .define(
+                            CACHE_SNAPSHOT_PERIOD_MS_OPT,
+                            ConfigDef.Type.LONG,
+                            60000L,
+                            ConfigDef.Range.atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            "The period in milliseconds of the mutation deduplication cache snapshots, 0 to only save it when the task is stopped");
     private static final Function<String, String> TO_SECONDS_CONVERTER =
             v -> String.format("%s seconds", v);
 
@@ -529,6 +587,34 @@ public class CassandraSourceConnectorConfig {
         return globalConfig.getInt(CONCURRENT_REQUESTS_OPT);
     }
 
+    public boolean isColumnProjection() {
+        return globalConfig.getBoolean(COLUMN_PROJECTION_OPT);
+    }
+
+    public int getReadBackConcurrency() {
+        return globalConfig.getInt(READ_BACK_CONCURRENCY_OPT);
+    }
+
+    public int getCacheMaxDigests() {
+        return globalConfig.getInt(CACHE_MAX_DIGESTS_OPT);
+    }
+
+    public long getCacheMaxMemoryMb() {
+        return globalConfig.getLong(CACHE_MAX_MEMORY_MB_OPT);
+    }
+
+    public long getCacheExpireAfterMs() {
+        return globalConfig.getLong(CACHE_EXPIRE_AFTER_MS_OPT);
+    }
+
+    public String getCacheSnapshotFile() {
+        return globalConfig.getString(CACHE_SNAPSHOT_FILE_OPT);
+    }
+
+    public long getCacheSnapshotPeriodMs() {
+        return globalConfig.getLong(CACHE_SNAPSHOT_PERIOD_MS_OPT);
+    }
+
     public enum IgnoreErrorsPolicy {
         ALL,
         NONE,
@@ -1,11 +1,14 @@
 package com.datastax.oss.kafka.source;
 
 import com.datastax.cassandra.cdc.CassandraClient;
+import com.datastax.cassandra.cdc.ColumnIndex;
+import com.datastax.cassandra.cdc.KeyOrderedExecutor;
 import com.datastax.cassandra.cdc.MutationCache;
+import com.datastax.cassandra.cdc.MutationCacheStore;
+import com.datastax.cassandra.cdc.MutationRow;
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.CqlSessionBuilder;
-import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.metadata.schema.*;
 import com.datastax.oss.driver.api.core.type.UserDefinedType;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
@@ -15,23 +18,33 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import io.confluent.connect.avro.AvroConverter;
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
 import io.vavr.Tuple2;
-import io.vavr.Tuple3;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.*;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.utils.Utils;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaAndValue;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
 import org.apache.kafka.connect.json.JsonConverterConfig;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.apache.kafka.connect.source.SourceTask;
 import org.apache.kafka.connect.storage.Converter;
 
 import java.io.Closeable;
+import java.io.File;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.Selector;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -50,8 +63,12 @@ public class CassandraSourceTask extends SourceTask implements SchemaChangeListe
     CassandraClient cassandraClient;
     final List<ConsistencyLevel> consistencyLevels = Collections.unmodifiableList(
             Lists.newArrayList(ConsistencyLevel.LOCAL_QUORUM, ConsistencyLevel.LOCAL_ONE));
-    MutationCache<Object> mutationCache;
+    // deduplicate the mutations by their serialized key, so that the cache can be saved
+    MutationCache<ByteBuffer> mutationCache;
+    MutationCacheStore<ByteBuffer> mutationCacheStore;
     volatile CassandraConverter cassandraConverter;
+    volatile TableMetadata tableMetadata;
+    volatile ColumnIndex columnIndex;
 
     Converter mutationKeyConverter, mutationValueConverter;
     Converter keyConverter, valueConverter;
@@ -59,6 +76,14 @@ public class CassandraSourceTask extends SourceTask implements SchemaChangeListe
     // the consumer is not thread-safe
     Consumer<byte[], byte[]> consumer = null;
 
+    KeyOrderedExecutor<Object> readBackExecutor;
+    // cache key and digest of the returned records not yet written, committed in the mutation cache once written
+    final Map<SourceRecord, Tuple2<ByteBuffer, String>> uncommittedDigests = Collections.synchronizedMap(new IdentityHashMap<>());
+    Semaphore readBackPermits;
+    final AtomicInteger inflightReads = new AtomicInteger();
+
+    ReadBackMetrics readBackMetrics;
+
     public CassandraSourceTask() {
     }
 
@@ -92,7 +117,21 @@ public class CassandraSourceTask extends SourceTask implements SchemaChangeListe
         this.keyspaceName = config.getKeyspaceName();
         this.tableName = config.getTableName();
 
-        this.mutationCache = new MutationCache<>(3, 10, Duration.ofHours(1));
+        this.mutationCache = MutationCache.withMaxMemory(
+                config.getCacheMaxDigests(),
+                config.getCacheMaxMemoryMb() * 1024 * 1024,
+                Duration.ofMillis(config.getCacheExpireAfterMs()));
+        if (!config.getCacheSnapshotFile().isEmpty()) {
+            this.mutationCacheStore = new MutationCacheStore<>(mutationCache,
+                    new File(config.getCacheSnapshotFile()),
+                    Duration.ofMillis(config.getCacheSnapshotPeriodMs()),
+                    Duration.ofMillis(config.getCacheExpireAfterMs()),
+                    Utils::toArray,
+                    ByteBuffer::wrap);
+        }
+        this.readBackExecutor = new KeyOrderedExecutor<>();
+        this.readBackPermits = new Semaphore(config.getReadBackConcurrency());
+        this.readBackMetrics = new ReadBackMetrics(config);
         this.cassandraClient = client;
         if (this.cassandraClient == null) {
             this.cassandraClient = createClient(config.getContactPoints(), config.getLocalDc().get());
@@ -189,6 +228,75 @@ public class CassandraSourceTask extends SourceTask implements SchemaChangeListe
         this.cassandraConverter = new CassandraConverter(ksm,
                 tableMetadata,
                 tableMetadata.getColumns().values());
+        this.tableMetadata = tableMetadata;
+        this.columnIndex = new ColumnIndex(tableMetadata.getColumns().values().stream()
+                .filter(c -> !tableMetadata.getPrimaryKey().contains(c))
+                .map(c -> c.getName().asInternal())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Return the columns updated by the mutation, or null to read the whole row.
+     */
+    String[] projectedColumns(Struct mutationStruct) {
+        if (!config.isColumnProjection()
+                || mutationStruct.schema().field("columnsVersion") == null
+                || mutationStruct.get("columnIndexes") == null) {
+            return null;
+        }
+        List<Integer> indexes = mutationStruct.getArray("columnIndexes");
+        int[] columnIndexes = new int[indexes.size()];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = indexes.get(i);
+        }
+        return columnIndex.names(columnsVersion(mutationStruct), columnIndexes);
+    }
+
+    /**
+     * The 64-bit columns version, or null for a missing version or a 32-bit version written by an older producer.
+     */
+    static Long columnsVersion(Struct mutationStruct) {
+        if (mutationStruct.schema().field("columnsVersion") == null) {
+            return null;
+        }
+        Object columnsVersion = mutationStruct.get("columnsVersion");
+        return columnsVersion instanceof Long ? (Long) columnsVersion : null;
+    }
+
+    /**
+     * Return the value of an INSERT covering all the columns from the cell values of the mutation,
+     * or null if the mutation has to be read back.
+     */
+    Struct payloadStruct(CassandraConverter converter, Struct mutationStruct, Map<String, Object> pk) {
+        if (mutationStruct.schema().field("columnValues") == null || mutationStruct.get("columnValues") == null) {
+            return null;
+        }
+        List<Integer> indexes = mutationStruct.getArray("columnIndexes");
+        List<Object> values = mutationStruct.getArray("columnValues");
+        int[] columnIndexes = new int[indexes.size()];
+        byte[][] columnValues = new byte[values.size()][];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = indexes.get(i);
+        }
+        for (int i = 0; i < columnValues.length; i++) {
+            Object value = values.get(i);
+            columnValues[i] = value instanceof ByteBuffer ? Utils.toArray((ByteBuffer) value) : (byte[]) value;
+        }
+        MutationRow mutationRow = MutationRow.of(tableMetadata, columnIndex,
+                columnsVersion(mutationStruct), columnIndexes, columnValues);
+        if (mutationRow == null) {
+            return null;
+        }
+        try {
+            Struct struct = converter.buildStruct(mutationRow);
+            for (Map.Entry<String, Object> entry : pk.entrySet()) {
+                struct.put(entry.getKey(), entry.getValue());
+            }
+            return struct;
+        } catch (DataException e) {
+            log.debug("Cannot build the value from the mutation cells, reading it back", e);
+            return null;
+        }
     }
 
     /**
@@ -206,68 +314,146 @@ public class CassandraSourceTask extends SourceTask implements SchemaChangeListe
      * @return a list of source records
      */
     @Override
-    public List<SourceRecord> poll() {
+    public List<SourceRecord> poll() throws InterruptedException {
         ConsumerRecords<byte[], byte[]> consumerRecords = consumer.poll(Duration.ofMillis(1000));
+        final long pollStart = System.nanoTime();
+        List<CompletableFuture<SourceRecord>> pendingRecords = new ArrayList<>(consumerRecords.count());
+        int maxInflightReads = 0;
         List<SourceRecord> sourceRecords = new ArrayList<>(consumerRecords.count());
-        // TODO: set the kafka partition
-        int partition = 0;
-        for (ConsumerRecord<byte[], byte[]> consumerRecord : consumerRecords) {
-            log.debug("Message from producer={} msgId={} key={} value={}\n",
-                    consumerRecord.partition(), consumerRecord.offset(), consumerRecord.key(), consumerRecord.value());
-
-            SchemaAndValue keySchemaAndValue = mutationKeyConverter.toConnectData(this.eventsTopic, consumerRecord.key());
-            Schema mutationKeySchema = keySchemaAndValue.schema();
-            Object mutationKey = keySchemaAndValue.value();
-
-            SchemaAndValue mutationSchemaAndValue = mutationValueConverter.toConnectData(this.eventsTopic, consumerRecord.value());
-            Struct mutationStruct = (Struct) mutationSchemaAndValue.value();
-            String md5Digest = mutationStruct.getString("md5Digest");
-            String nodeId = mutationStruct.getString("nodeId");
-            if (mutationCache.isMutationProcessed(mutationKey, md5Digest) == false) {
+        try {
+            for (ConsumerRecord<byte[], byte[]> consumerRecord : consumerRecords) {
+                log.debug("Message from producer={} msgId={} key={} value={}\n",
+                        consumerRecord.partition(), consumerRecord.offset(), consumerRecord.key(), consumerRecord.value());
+
+                SchemaAndValue keySchemaAndValue = mutationKeyConverter.toConnectData(this.eventsTopic, consumerRecord.key());
+                SchemaAndValue mutationSchemaAndValue = mutationValueConverter.toConnectData(this.eventsTopic, consumerRecord.value());
+                // ensure the schema is the one used when building the struct.
+                final CassandraConverter cassandraConverterFinal = this.cassandraConverter;
+
+                // bound the concurrent reads, the mutations of the same key are read back in the consumer order
+                readBackPermits.acquire();
+                int inflight = inflightReads.incrementAndGet();
+                readBackMetrics.recordInflightReads(inflight);
+                maxInflightReads = Math.max(maxInflightReads, inflight);
+                CompletableFuture<SourceRecord> pendingRecord = readBackExecutor.submit(keySchemaAndValue.value(),
+                        () -> readRecordAsync(cassandraConverterFinal, ByteBuffer.wrap(consumerRecord.key()),
+                                keySchemaAndValue, (Struct) mutationSchemaAndValue.value()));
+                pendingRecord.whenComplete((r, e) -> {
+                    inflightReads.decrementAndGet();
+                    readBackPermits.release();
+                });
+                pendingRecords.add(pendingRecord);
+            }
+
+            // emit the records in the consumer order
+            for (CompletableFuture<SourceRecord> pendingRecord : pendingRecords) {
                 try {
-                    // ensure the schema is the one used when building the struct.
-                    final CassandraConverter cassandraConverterFinal = this.cassandraConverter;
-                    Map<String, Object> pk = new HashMap<>();
-                    if (cassandraConverterFinal.getPrimaryKeyColumns().size() > 1) {
-                        Struct struct = (Struct) keySchemaAndValue.value();
-                        for (ColumnMetadata column : cassandraConverterFinal.getPrimaryKeyColumns()) {
-                            String colName = column.getName().asCql(true);
-                            pk.put(colName, struct.get(colName));
-                        }
-                    } else {
-                        String colName = cassandraConverterFinal.getPrimaryKeyColumns().get(0).getName().asCql(true);
-                        pk.put(colName, keySchemaAndValue.value());
+                    SourceRecord sourceRecord = pendingRecord.get();
+                    if (sourceRecord != null) {
+                        sourceRecords.add(sourceRecord);
                     }
-                    Tuple3<Row, ConsistencyLevel, KeyspaceMetadata> tuple = cassandraClient.selectRow(
-                            keyspaceName,
-                            tableName,
-                            pk,
-                            UUID.fromString(nodeId),
-                            new ArrayList<ConsistencyLevel>(consistencyLevels));
-                    Object value = null;
-                    if (tuple._1 != null) {
-                        value = cassandraConverterFinal.buildStruct(tuple._1);
-                    }
-                    log.debug("key={} value={}", mutationKey, value);
-                    SourceRecord sourceRecord = new SourceRecord(
-                            ImmutableMap.of(),
-                            ImmutableMap.of(),
-                            dataTopic,
-                            partition,
-                            mutationKeySchema,
-                            mutationKey,
-                            cassandraConverterFinal.getSchema(),
-                            value);
-                    sourceRecords.add(sourceRecord);
-                    mutationCache.addMutationMd5(mutationKey, md5Digest);
-                } catch (Exception e) {
-                    log.error("error", e);
+                } catch (ExecutionException e) {
+                    log.error("error", e.getCause());
                 }
             }
+        } catch (InterruptedException e) {
+            // the records of this poll are not returned
+            for (CompletableFuture<SourceRecord> pendingRecord : pendingRecords) {
+                pendingRecord.thenAccept(sourceRecord -> {
+                    if (sourceRecord != null) {
+                        discardRecord(sourceRecord);
+                    }
+                });
+            }
+            throw e;
+        }
+        if (!pendingRecords.isEmpty()) {
+            long pollLatencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pollStart);
+            readBackMetrics.recordPollLatency(pollLatencyMs);
+            log.debug("Polled mutations={} records={} maxInflightReads={} latency={}ms cacheStats={}",
+                    pendingRecords.size(), sourceRecords.size(), maxInflightReads, pollLatencyMs, mutationCache.stats());
         }
         return sourceRecords;
     }
 
+    /**
+     * Build the source record of a mutation, reading back the row when the mutation does not provide it,
+     * or return null if the mutation was already processed.
+     */
+    CompletionStage<SourceRecord> readRecordAsync(CassandraConverter cassandraConverterFinal,
+                                                  ByteBuffer cacheKey,
+                                                  SchemaAndValue keySchemaAndValue,
+                                                  Struct mutationStruct) {
+        Object mutationKey = keySchemaAndValue.value();
+        String md5Digest = mutationStruct.getString("md5Digest");
+        String nodeId = mutationStruct.getString("nodeId");
+        if (mutationCache.isMutationProcessed(cacheKey, md5Digest)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Map<String, Object> pk = new HashMap<>();
+        if (cassandraConverterFinal.getPrimaryKeyColumns().size() > 1) {
+            Struct struct = (Struct) keySchemaAndValue.value();
+            for (ColumnMetadata column : cassandraConverterFinal.getPrimaryKeyColumns()) {
+                String colName = column.getName().asCql(true);
+                pk.put(colName, struct.get(colName));
+            }
+        } else {
+            String colName = cassandraConverterFinal.getPrimaryKeyColumns().get(0).getName().asCql(true);
+            pk.put(colName, keySchemaAndValue.value());
+        }
+        // emit the full INSERT shipped by a producer in payload mode without reading it back
+        Struct payload = payloadStruct(cassandraConverterFinal, mutationStruct, pk);
+        CompletionStage<Object> valueStage = payload != null
+                ? CompletableFuture.completedFuture(payload)
+                : cassandraClient.selectRowAsync(
+                        keyspaceName,
+                        tableName,
+                        pk,
+                        UUID.fromString(nodeId),
+                        new ArrayList<ConsistencyLevel>(consistencyLevels),
+                        projectedColumns(mutationStruct))
+                .thenApply(tuple -> tuple._1 == null ? null : cassandraConverterFinal.buildStruct(tuple._1));
+        return valueStage.thenApply(value -> {
+            log.debug("key={} value={}", mutationKey, value);
+            // TODO: set the kafka partition
+            int partition = 0;
+            SourceRecord sourceRecord = new SourceRecord(
+                    ImmutableMap.of(),
+                    ImmutableMap.of(),
+                    dataTopic,
+                    partition,
+                    keySchemaAndValue.schema(),
+                    mutationKey,
+                    cassandraConverterFinal.getSchema(),
+                    value);
+            mutationCache.addPendingMutationMd5(cacheKey, md5Digest);
+            uncommittedDigests.put(sourceRecord, new Tuple2<>(cacheKey, md5Digest));
+            return sourceRecord;
+        });
+    }
+
+    /**
+     * Commit the digest of a mutation once its record is written, so that the persisted mutation cache
+     * does not drop the mutation as a duplicate if it is redelivered after a crash.
+     */
+    @Override
+    public void commitRecord(SourceRecord record, RecordMetadata metadata) {
+        Tuple2<ByteBuffer, String> digest = uncommittedDigests.remove(record);
+        if (digest != null) {
+            mutationCache.commitMutationMd5(digest._1, digest._2);
+        }
+    }
+
+    /**
+     * Release the pending digest of a record that is not written, so that its mutation is not dropped
+     * as a duplicate when redelivered.
+     */
+    void discardRecord(SourceRecord record) {
+        Tuple2<ByteBuffer, String> digest = uncommittedDigests.remove(record);
+        if (digest != null) {
+            mutationCache.removePendingMutationMd5(digest._1, digest._2);
+        }
+    }
 
     /**
      * Signal this SourceTask to stop. In SourceTasks, this method only needs to signal to the task that it should stop
@@ -281,6 +467,24 @@ public class CassandraSourceTask extends SourceTask implements SchemaChangeListe
      */
     @Override
     public void stop() {
+        if (this.mutationCacheStore != null) {
+            this.mutationCacheStore.close();
+            this.mutationCacheStore = null;
+        }
+        if (this.mutationCache != null) {
+            // the records not yet written are redelivered
+            synchronized (uncommittedDigests) {
+                for (Tuple2<ByteBuffer, String> digest : uncommittedDigests.values()) {
+                    mutationCache.removePendingMutationMd5(digest._1, digest._2);
+                }
+                uncommittedDigests.clear();
+            }
+            log.info("Mutation cache size={} stats={}", mutationCache.estimatedSize(), mutationCache.stats());
+        }
+        if (this.readBackMetrics != null) {
+            this.readBackMetrics.close();
+            this.readBackMetrics = null;
+        }
         if (this.consumer != null) {
             synchronized(this) {
                 if (this.consumer != null) {
@@ -324,6 +528,7 @@ public class CassandraSourceTask extends SourceTask implements SchemaChangeListe
                 && current.getName().asCql(true).equals(tableName)) {
             KeyspaceMetadata ksm = cassandraClient.getCqlSession().getMetadata().getKeyspace(keyspaceName).get();
             setCassandraConverter(ksm, current);
+            cassandraClient.onTableUpdated(keyspaceName, tableName);
         }
     }
 
@@ -0,0 +1,67 @@
+package com.datastax.oss.kafka.source;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.MetricsReporter;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.utils.Time;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-back metrics of a source task, reported with JMX in the jmxConnectorDomain when jmx is enabled.
+ */
+public class ReadBackMetrics implements AutoCloseable {
+    static final String GROUP = "cassandra-source-read-back";
+    private static final AtomicInteger taskCounter = new AtomicInteger();
+
+    private final Metrics metrics;
+    private final Map<String, String> tags;
+    private final Sensor inflightReads;
+    private final Sensor pollLatency;
+
+    public ReadBackMetrics(CassandraSourceConnectorConfig config) {
+        List<MetricsReporter> reporters = config.getJmx()
+                ? Collections.singletonList(new JmxReporter(config.getJmxConnectorDomain()))
+                : Collections.emptyList();
+        this.metrics = new Metrics(new MetricConfig(), reporters, Time.SYSTEM);
+        this.tags = new HashMap<>();
+        tags.put("connector", String.valueOf(config.getInstanceName()));
+        tags.put("task", Integer.toString(taskCounter.incrementAndGet()));
+
+        this.inflightReads = metrics.sensor("inflight-reads");
+        inflightReads.add(name("inflight-reads-max", "The max number of rows read back concurrently"), new Max());
+        this.pollLatency = metrics.sensor("poll-latency");
+        pollLatency.add(name("poll-latency-avg", "The average time in ms to read back the mutations of a poll"), new Avg());
+        pollLatency.add(name("poll-latency-max", "The max time in ms to read back the mutations of a poll"), new Max());
+        final int readBackConcurrency = config.getReadBackConcurrency();
+        metrics.addMetric(name("read-back-concurrency", "The max number of rows read back concurrently allowed"),
+                (Gauge<Integer>) (metricConfig, now) -> readBackConcurrency);
+    }
+
+    private MetricName name(String name, String description) {
+        return metrics.metricName(name, GROUP, description, tags);
+    }
+
+    public void recordInflightReads(int inflight) {
+        inflightReads.record(inflight);
+    }
+
+    public void recordPollLatency(long latencyMs) {
+        pollLatency.record(latencyMs);
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+    }
+}
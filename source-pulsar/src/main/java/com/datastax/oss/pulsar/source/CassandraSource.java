@@ -20,7 +20,11 @@
 package com.datastax.oss.pulsar.source;
 
 import com.datastax.cassandra.cdc.CassandraClient;
+import com.datastax.cassandra.cdc.ColumnIndex;
+import com.datastax.cassandra.cdc.KeyOrderedExecutor;
 import com.datastax.cassandra.cdc.MutationCache;
+import com.datastax.cassandra.cdc.MutationCacheStore;
+import com.datastax.cassandra.cdc.MutationRow;
 import com.datastax.cassandra.cdc.MutationValue;
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlSession;
@@ -52,10 +56,21 @@ import org.apache.pulsar.io.core.SourceContext;
 import org.apache.pulsar.io.core.annotations.Connector;
 import org.apache.pulsar.io.core.annotations.IOType;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -78,8 +93,30 @@ public class CassandraSource implements Source<GenericRecord>, SchemaChangeListe
     Converter keyConverter;
     Converter valueConverter;
     List<String> pkColumns;
+    volatile TableMetadata tableMetadata;
+    volatile ColumnIndex columnIndex;
 
     MutationCache<String> mutationCache;
+    MutationCacheStore<String> mutationCacheStore;
+
+    // pipelined read-back when readBackConcurrency > 1, records are emitted in their read-back completion order
+    KeyOrderedExecutor<String> readBackExecutor;
+    final BlockingQueue<PendingRead> completedReads = new LinkedBlockingQueue<>();
+    final AtomicInteger inflightReads = new AtomicInteger(0);
+    final AtomicBoolean receiving = new AtomicBoolean(false);
+
+    /**
+     * A received message and its read-back record, null when the mutation was already processed.
+     */
+    static class PendingRead {
+        final Message<KeyValue<GenericRecord, MutationValue>> msg;
+        Record<GenericRecord> record;
+        Throwable error;
+
+        PendingRead(Message<KeyValue<GenericRecord, MutationValue>> msg) {
+            this.msg = msg;
+        }
+    }
 
     Schema<KeyValue<GenericRecord, MutationValue>> dirtySchema = Schema.KeyValue(
             Schema.AUTO_CONSUME(),
@@ -133,7 +170,24 @@ public class CassandraSource implements Source<GenericRecord>, SchemaChangeListe
         }
 
         this.consumer = consumerBuilder.subscribe();
-        this.mutationCache = new MutationCache<>(3, 10, Duration.ofHours(1));
+        this.mutationCache = MutationCache.withMaxMemory(
+                cassandraSourceConfig.getCacheMaxDigests(),
+                cassandraSourceConfig.getCacheMaxMemoryMb() * 1024 * 1024,
+                Duration.ofMillis(cassandraSourceConfig.getCacheExpireAfterMs()));
+        if (!Strings.isNullOrEmpty(cassandraSourceConfig.getCacheSnapshotFile())) {
+            this.mutationCacheStore = new MutationCacheStore<>(mutationCache,
+                    new File(cassandraSourceConfig.getCacheSnapshotFile()),
+                    Duration.ofMillis(cassandraSourceConfig.getCacheSnapshotPeriodMs()),
+                    Duration.ofMillis(cassandraSourceConfig.getCacheExpireAfterMs()),
+                    key -> key.getBytes(StandardCharsets.UTF_8),
+                    bytes -> new String(bytes, StandardCharsets.UTF_8));
+        }
+        if (cassandraSourceConfig.getReadBackConcurrency() < 1) {
+            throw new IllegalArgumentException("readBackConcurrency must be greater than 0.");
+        }
+        if (cassandraSourceConfig.getReadBackConcurrency() > 1) {
+            this.readBackExecutor = new KeyOrderedExecutor<>();
+        }
         log.debug("Starting source connector topic={} subscription={}",
                 dirtyTopicName,
                 cassandraSourceConfig.getEventsTopicPrefix());
@@ -147,6 +201,11 @@ public class CassandraSource implements Source<GenericRecord>, SchemaChangeListe
                 tableMetadata.getColumns().values().stream()
                         .filter(c -> !tableMetadata.getPrimaryKey().contains(c))
                         .collect(Collectors.toList()));
+        this.tableMetadata = tableMetadata;
+        this.columnIndex = new ColumnIndex(tableMetadata.getColumns().values().stream()
+                .filter(c -> !tableMetadata.getPrimaryKey().contains(c))
+                .map(c -> c.getName().asInternal())
+                .collect(Collectors.toList()));
     }
 
     Converter createConverter(String className, KeyspaceMetadata ksm, TableMetadata tableMetadata, List<ColumnMetadata> columns)
@@ -160,6 +219,13 @@ public class CassandraSource implements Source<GenericRecord>, SchemaChangeListe
     public void close() throws Exception {
         if (this.cassandraClient != null)
             this.cassandraClient.close();
+        if (this.mutationCacheStore != null) {
+            this.mutationCacheStore.close();
+            this.mutationCacheStore = null;
+        }
+        if (this.mutationCache != null) {
+            log.info("Mutation cache size={} stats={}", mutationCache.estimatedSize(), mutationCache.stats());
+        }
         this.mutationCache = null;
     }
 
@@ -194,57 +260,21 @@ public class CassandraSource implements Source<GenericRecord>, SchemaChangeListe
      * @return next message from source.  The return result should never be null
      * @throws Exception
      */
-    @SuppressWarnings("unchecked")
     public Record<GenericRecord> read() throws Exception {
         log.debug("reading from topic={}", dirtyTopicName);
+        if (readBackExecutor != null) {
+            return readPipelined();
+        }
         while(true) {
             final Message<KeyValue<GenericRecord, MutationValue>> msg = consumer.receive();
-            final KeyValue<GenericRecord, MutationValue> kv = msg.getValue();
-            final Object mutationKey = kv.getKey();
-            final MutationValue mutationValue = kv.getValue();
+            final MutationValue mutationValue = msg.getValue().getValue();
 
             log.debug("Message from producer={} msgId={} key={} value={}\n",
-                    msg.getProducerName(), msg.getMessageId(), kv.getKey(), kv.getValue());
+                    msg.getProducerName(), msg.getMessageId(), msg.getValue().getKey(), mutationValue);
 
             if (mutationCache.isMutationProcessed(msg.getKey(), mutationValue.getMd5Digest()) == false) {
                 try {
-                    Map<String, Object> pk =  (Map<String, Object>) keyConverter.fromConnectData(mutationKey);
-                    Tuple3<Row, ConsistencyLevel, KeyspaceMetadata> tuple =
-                            cassandraClient.selectRow(cassandraSourceConfig.getKeyspace(),
-                                    cassandraSourceConfig.getTable(),
-                                    pk,
-                                    mutationValue.getNodeId(),
-                                    Lists.newArrayList(ConsistencyLevel.LOCAL_QUORUM, ConsistencyLevel.LOCAL_ONE));
-
-                    Object value = tuple._1 == null ? null : valueConverter.toConnectData(tuple._1);
-                    KeyValue<Object, Object> keyValue = new KeyValue(mutationKey, value);
-                    final Record record = new KVRecord() {
-                        @Override
-                        public Schema getKeySchema() {
-                            return keyConverter.getSchema();
-                        }
-
-                        @Override
-                        public Schema getValueSchema() {
-                            return valueConverter.getSchema();
-                        }
-
-                        @Override
-                        public KeyValueEncodingType getKeyValueEncodingType() {
-                            return KeyValueEncodingType.SEPARATED;
-                        }
-
-                        @Override
-                        public Optional<String> getKey() {
-                            String encodedKey = Base64.getEncoder().encodeToString(keyConverter.getSchema().encode(mutationKey));
-                            return Optional.of(encodedKey);
-                        }
-
-                        @Override
-                        public KeyValue getValue() {
-                            return keyValue;
-                        }
-                    };
+                    Record<GenericRecord> record = readRecordAsync(msg).toCompletableFuture().get();
                     acknowledge(consumer, msg);
                     mutationCache.addMutationMd5(msg.getKey(), mutationValue.getMd5Digest());
                     return record;
@@ -259,6 +289,152 @@ public class CassandraSource implements Source<GenericRecord>, SchemaChangeListe
         }
     }
 
+    /**
+     * Keep up to readBackConcurrency messages in flight, and return the next read-back record.
+     * Messages are acknowledged when their record is returned, and their digest is then committed
+     * in the mutation cache.
+     */
+    Record<GenericRecord> readPipelined() throws Exception {
+        while(true) {
+            receiveNext();
+            final PendingRead pendingRead = completedReads.take();
+            inflightReads.decrementAndGet();
+            if (pendingRead.error != null) {
+                Throwable error = pendingRead.error instanceof CompletionException && pendingRead.error.getCause() != null
+                        ? pendingRead.error.getCause()
+                        : pendingRead.error;
+                log.error("error", error);
+                if (pendingRead.msg != null) {
+                    // the mutation is redelivered, do not drop it as a duplicate
+                    mutationCache.removePendingMutationMd5(pendingRead.msg.getKey(), pendingRead.msg.getValue().getValue().getMd5Digest());
+                    negativeAcknowledge(consumer, pendingRead.msg);
+                }
+                throw error instanceof Exception ? (Exception) error : new ExecutionException(error);
+            }
+            acknowledge(consumer, pendingRead.msg);
+            if (pendingRead.record != null) {
+                mutationCache.commitMutationMd5(pendingRead.msg.getKey(), pendingRead.msg.getValue().getValue().getMd5Digest());
+                return pendingRead.record;
+            }
+        }
+    }
+
+    /**
+     * Receive messages until readBackConcurrency messages are in flight, one receive at a time.
+     */
+    void receiveNext() {
+        while (inflightReads.get() < cassandraSourceConfig.getReadBackConcurrency() && receiving.compareAndSet(false, true)) {
+            if (inflightReads.get() >= cassandraSourceConfig.getReadBackConcurrency()) {
+                // a read completed after the check, loop to check again
+                receiving.set(false);
+                continue;
+            }
+            consumer.receiveAsync().whenComplete((msg, error) -> {
+                inflightReads.incrementAndGet();
+                if (error != null) {
+                    PendingRead pendingRead = new PendingRead(null);
+                    pendingRead.error = error;
+                    completedReads.add(pendingRead);
+                    receiving.set(false);
+                    return;
+                }
+                log.debug("Message from producer={} msgId={} key={} value={}\n",
+                        msg.getProducerName(), msg.getMessageId(), msg.getValue().getKey(), msg.getValue().getValue());
+                readBack(new PendingRead(msg));
+                receiving.set(false);
+                receiveNext();
+            });
+            return;
+        }
+    }
+
+    /**
+     * Read back a message after the previous messages of the same key.
+     */
+    void readBack(final PendingRead pendingRead) {
+        final String key = pendingRead.msg.getKey();
+        final String md5Digest = pendingRead.msg.getValue().getValue().getMd5Digest();
+        readBackExecutor.submit(key, () -> {
+            // a duplicated mutation is known once the previous mutations of the same key are read back,
+            // their digest is pending until they are acknowledged.
+            if (mutationCache.isMutationProcessed(key, md5Digest)) {
+                return CompletableFuture.<Record<GenericRecord>>completedFuture(null);
+            }
+            try {
+                return readRecordAsync(pendingRead.msg).thenApply(record -> {
+                    mutationCache.addPendingMutationMd5(key, md5Digest);
+                    return record;
+                });
+            } catch (IOException e) {
+                CompletableFuture<Record<GenericRecord>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }).whenComplete((record, error) -> {
+            pendingRead.record = record;
+            pendingRead.error = error;
+            completedReads.add(pendingRead);
+        });
+    }
+
+    /**
+     * Build the record of a message, from the full INSERT shipped by a producer in payload mode,
+     * or by reading back the row.
+     */
+    @SuppressWarnings("unchecked")
+    CompletionStage<Record<GenericRecord>> readRecordAsync(final Message<KeyValue<GenericRecord, MutationValue>> msg) throws IOException {
+        final Object mutationKey = msg.getValue().getKey();
+        final MutationValue mutationValue = msg.getValue().getValue();
+        MutationRow mutationRow = MutationRow.of(tableMetadata, columnIndex,
+                mutationValue.getColumnsVersion(), mutationValue.getColumnIndexes(), mutationValue.getColumnValues());
+        if (mutationRow != null) {
+            return CompletableFuture.completedFuture(newRecord(mutationKey, valueConverter.toConnectData(mutationRow)));
+        }
+        Map<String, Object> pk =  (Map<String, Object>) keyConverter.fromConnectData(mutationKey);
+        String[] columns = cassandraSourceConfig.isColumnProjection()
+                ? columnIndex.names(mutationValue.getColumnsVersion(), mutationValue.getColumnIndexes())
+                : null;
+        return cassandraClient.selectRowAsync(cassandraSourceConfig.getKeyspace(),
+                        cassandraSourceConfig.getTable(),
+                        pk,
+                        mutationValue.getNodeId(),
+                        Lists.newArrayList(ConsistencyLevel.LOCAL_QUORUM, ConsistencyLevel.LOCAL_ONE),
+                        columns)
+                .thenApply(tuple -> newRecord(mutationKey, tuple._1 == null ? null : valueConverter.toConnectData(tuple._1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    Record<GenericRecord> newRecord(final Object mutationKey, final Object value) {
+        KeyValue<Object, Object> keyValue = new KeyValue(mutationKey, value);
+        return new KVRecord() {
+            @Override
+            public Schema getKeySchema() {
+                return keyConverter.getSchema();
+            }
+
+            @Override
+            public Schema getValueSchema() {
+                return valueConverter.getSchema();
+            }
+
+            @Override
+            public KeyValueEncodingType getKeyValueEncodingType() {
+                return KeyValueEncodingType.SEPARATED;
+            }
+
+            @Override
+            public Optional<String> getKey() {
+                String encodedKey = Base64.getEncoder().encodeToString(keyConverter.getSchema().encode(mutationKey));
+                return Optional.of(encodedKey);
+            }
+
+            @Override
+            public KeyValue getValue() {
+                return keyValue;
+            }
+        };
+    }
+
     private CassandraClient createClient(String roots) {
         String[] hosts = roots.split(",");
         if(hosts.length <= 0) {
@@ -334,6 +510,7 @@ public class CassandraSource implements Source<GenericRecord>, SchemaChangeListe
             && current.getName().asCql(true).equals(cassandraSourceConfig.getTable())) {
             KeyspaceMetadata ksm = cassandraClient.getCqlSession().getMetadata().getKeyspace(cassandraSourceConfig.getKeyspace()).get();
             setValueConverter(ksm, current);
+            cassandraClient.onTableUpdated(cassandraSourceConfig.getKeyspace(), cassandraSourceConfig.getTable());
         }
     }
 
@@ -84,6 +84,48 @@ public class CassandraSourceConfig implements Serializable {
             help = "The converter class name used to convert a Cassandra row value to a pulsar IO record.")
     private String valueConverter;
 
+    @FieldDoc(
+            required = false,
+            defaultValue = "false",
+            help = "When true, only read back the primary key and the columns updated by the mutation, when the events provide them.")
+    private boolean columnProjection = false;
+
+    @FieldDoc(
+            required = false,
+            defaultValue = "16",
+            help = "The maximum number of messages read back concurrently, mutations of the same primary key are read back in order. 1 reads back one message at a time. Defaults to 16, like the Kafka source.")
+    private int readBackConcurrency = 16;
+
+    @FieldDoc(
+            required = false,
+            defaultValue = "3",
+            help = "The maximum number of mutation digests kept per primary key to deduplicate the mutations replicated on several nodes.")
+    private int cacheMaxDigests = 3;
+
+    @FieldDoc(
+            required = false,
+            defaultValue = "128",
+            help = "The estimated maximum memory in megabytes of the mutation deduplication cache.")
+    private long cacheMaxMemoryMb = 128;
+
+    @FieldDoc(
+            required = false,
+            defaultValue = "3600000",
+            help = "The retention in milliseconds of the mutation digests in the deduplication cache.")
+    private long cacheExpireAfterMs = 3600000L;
+
+    @FieldDoc(
+            required = false,
+            defaultValue = "",
+            help = "The local file where the mutation deduplication cache is saved and reloaded on restart, disabled when empty.")
+    private String cacheSnapshotFile;
+
+    @FieldDoc(
+            required = false,
+            defaultValue = "60000",
+            help = "The period in milliseconds of the mutation deduplication cache snapshots, 0 to only save it when the source is closed.")
+    private long cacheSnapshotPeriodMs = 60000L;
+
     public static CassandraSourceConfig load(String yamlFile) throws IOException {
         ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
         return mapper.readValue(new File(yamlFile), CassandraSourceConfig.class);
@@ -127,7 +127,8 @@ public abstract class AbstractGenericConverter implements Converter<GenericRecor
     public GenericRecord toConnectData(Row row) {
         GenericRecordBuilder genericRecordBuilder = schema.newRecordBuilder();
         for(ColumnMetadata cm : columns) {
-            if (!row.isNull(cm.getName())) {
+            // projected reads only return the updated columns
+            if (row.getColumnDefinitions().contains(cm.getName()) && !row.isNull(cm.getName())) {
                 switch (cm.getType().getProtocolCode()) {
                     case ProtocolConstants.DataType.UUID:
                     case ProtocolConstants.DataType.TIMEUUID:
@@ -46,6 +46,7 @@ import org.testcontainers.cassandra.CassandraContainer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -136,6 +137,7 @@ public class CassandraSourceTests {
             when(mockConsumerBuilder.subscribe()).thenReturn(mockConsumer);
 
             when(mockConsumer.receive()).thenReturn(mockMessage);
+            when(mockConsumer.receiveAsync()).thenReturn(CompletableFuture.completedFuture(mockMessage));
 
             when(mockMessage.getValue()).then(new Answer<KeyValue<GenericRecord, MutationValue>>() {
                 @Override
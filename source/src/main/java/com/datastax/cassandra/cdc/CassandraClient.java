@@ -1,10 +1,14 @@
 package com.datastax.cassandra.cdc;
 
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
@@ -12,12 +16,15 @@ import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
 import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
 import com.datastax.oss.driver.api.core.servererrors.UnavailableException;
 import com.datastax.oss.driver.api.querybuilder.select.Select;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.vavr.Tuple2;
 import io.vavr.Tuple3;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
@@ -35,6 +42,87 @@ public class CassandraClient implements AutoCloseable {
 
     final CqlSession cqlSession;
 
+    /**
+     * Max number of cached prepared statements.
+     */
+    static final int MAX_PREPARED_STATEMENTS = 1024;
+
+    /**
+     * Max number of cached projected statements per table, as each combination of the mutated columns
+     * is a distinct statement. Beyond this limit, all the columns of the table are read.
+     */
+    static final int MAX_PROJECTIONS_PER_TABLE = 64;
+
+    // select by primary key statements, prepared asynchronously
+    final Cache<StatementKey, CompletableFuture<PreparedStatement>> preparedStatements = Caffeine.newBuilder()
+            .maximumSize(MAX_PREPARED_STATEMENTS)
+            .build();
+
+    /**
+     * Identify a select by primary key statement by its table, primary key columns in the bind order,
+     * and selected regular columns (internal names), or null for all the columns.
+     */
+    static class StatementKey {
+        final String keyspaceName;
+        final String tableName;
+        final List<String> pkColumns;
+        final List<String> columns;
+
+        StatementKey(String keyspaceName, String tableName, List<String> pkColumns, List<String> columns) {
+            this.keyspaceName = keyspaceName;
+            this.tableName = tableName;
+            this.pkColumns = pkColumns;
+            this.columns = columns;
+        }
+
+        /**
+         * Return the key of the statement selecting all the columns of the same row.
+         */
+        StatementKey selectAll() {
+            return new StatementKey(keyspaceName, tableName, pkColumns, null);
+        }
+
+        SimpleStatement select() {
+            Select query;
+            if (columns == null) {
+                query = selectFrom(keyspaceName, tableName).all();
+            } else {
+                List<CqlIdentifier> selectedColumns = new ArrayList<>(pkColumns.size() + columns.size());
+                for (String pkColumn : pkColumns) {
+                    selectedColumns.add(CqlIdentifier.fromCql(pkColumn));
+                }
+                for (String column : columns) {
+                    selectedColumns.add(CqlIdentifier.fromInternal(column));
+                }
+                query = selectFrom(keyspaceName, tableName).columnsIds(selectedColumns);
+            }
+            for (String pkColumn : pkColumns) {
+                query = query.whereColumn(pkColumn).isEqualTo(bindMarker());
+            }
+            return query.build();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey that = (StatementKey) o;
+            return keyspaceName.equals(that.keyspaceName)
+                    && tableName.equals(that.tableName)
+                    && pkColumns.equals(that.pkColumns)
+                    && Objects.equals(columns, that.columns);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(keyspaceName, tableName, pkColumns, columns);
+        }
+    }
+
     public CassandraClient(CqlSession session) {
         this.cqlSession = session;
     }
@@ -54,6 +142,17 @@ public class CassandraClient implements AutoCloseable {
                 .toCompletableFuture().get();
     }
 
+    public Tuple3<Row, ConsistencyLevel, KeyspaceMetadata> selectRow(String keyspaceName,
+                                                                     String tableName,
+                                                                     Map<String, Object> pk,
+                                                                     UUID nodeId,
+                                                                     List<ConsistencyLevel> consistencyLevels,
+                                                                     String[] columns)
+            throws ExecutionException, InterruptedException {
+        return selectRowAsync(keyspaceName, tableName, pk, nodeId, consistencyLevels, columns)
+                .toCompletableFuture().get();
+    }
+
     public Tuple2<KeyspaceMetadata, TableMetadata> getTableMetadata(String keyspace, String table) {
         Metadata metadata = cqlSession.getMetadata();
         Optional<KeyspaceMetadata> keyspaceMetadataOptional = metadata.getKeyspace(keyspace);
@@ -76,24 +175,49 @@ public class CassandraClient implements AutoCloseable {
                                                                                            Map<String, Object> pk,
                                                                                            UUID nodeId,
                                                                                            List<ConsistencyLevel> consistencyLevels) {
-        Select query = selectFrom(keyspaceName, tableName).all();
-        List<Object> values = new ArrayList<>(pk.size());
+        return selectRowAsync(keyspaceName, tableName, pk, nodeId, consistencyLevels, null);
+    }
+
+    /**
+     * Same as {@link #selectRowAsync(String, String, Map, UUID, List)}, but only read the primary key
+     * and the given regular columns (internal names), or all columns if null.
+     */
+    public CompletionStage<Tuple3<Row, ConsistencyLevel, KeyspaceMetadata>> selectRowAsync(String keyspaceName,
+                                                                                           String tableName,
+                                                                                           Map<String, Object> pk,
+                                                                                           UUID nodeId,
+                                                                                           List<ConsistencyLevel> consistencyLevels,
+                                                                                           String[] columns) {
+        // bind the primary key values in the order of the prepared where clause
+        List<String> pkColumns = new ArrayList<>(pk.size());
+        Object[] values = new Object[pk.size()];
+        int i = 0;
         for(Map.Entry<String, Object> entry : pk.entrySet()) {
-            values.add(entry.getValue());
-            query = query.whereColumn(entry.getKey()).isEqualTo(bindMarker());
+            pkColumns.add(entry.getKey());
+            values[i++] = entry.getValue();
         }
-        SimpleStatement statement = query.build(pk);
-
-        // set the coordinator node
-        Node node = null;
-        if(nodeId != null) {
-            node = cqlSession.getMetadata().getNodes().get(nodeId);
-            if(node != null) {
-                statement.setNode(node);
+        final StatementKey statementKey = new StatementKey(keyspaceName, tableName, pkColumns,
+                columns == null ? null : Arrays.asList(columns));
+        return prepare(statementKey).thenCompose(preparedStatement -> {
+            BoundStatement statement = preparedStatement.bind(values);
+
+            // set the coordinator node
+            Node node = null;
+            if(nodeId != null) {
+                node = cqlSession.getMetadata().getNodes().get(nodeId);
+                if(node != null) {
+                    statement = statement.setNode(node);
+                }
             }
-        }
-        log.debug("Executing query={} pk={} coordinator={}", query.toString(), pk, node);
+            log.debug("Executing query={} pk={} coordinator={}", preparedStatement.getQuery(), pk, node);
+            return read(keyspaceName, pk, statement, consistencyLevels);
+        });
+    }
 
+    private CompletionStage<Tuple3<Row, ConsistencyLevel, KeyspaceMetadata>> read(String keyspaceName,
+                                                                                  Map<String, Object> pk,
+                                                                                  BoundStatement statement,
+                                                                                  List<ConsistencyLevel> consistencyLevels) {
         return executeWithDowngradeConsistencyRetry(cqlSession, keyspaceName, statement, consistencyLevels)
                 .thenApply(tuple -> {
                     log.debug("Read cl={} coordinator={} pk={}",
@@ -111,16 +235,74 @@ public class CassandraClient implements AutoCloseable {
                 });
     }
 
+    /**
+     * Return the prepared statement of the key, prepared asynchronously on the first use.
+     * A failed preparation is removed from the cache to be retried by the next read.
+     */
+    CompletableFuture<PreparedStatement> prepare(StatementKey statementKey) {
+        CompletableFuture<PreparedStatement> future = preparedStatements.getIfPresent(statementKey);
+        if (future == null) {
+            if (statementKey.columns != null && projections(statementKey) >= MAX_PROJECTIONS_PER_TABLE) {
+                log.debug("Too many projected statements for table {}.{}, reading all the columns",
+                        statementKey.keyspaceName, statementKey.tableName);
+                return prepare(statementKey.selectAll());
+            }
+            future = preparedStatements.get(statementKey, this::prepareAsync);
+        }
+        if (future.isCompletedExceptionally()) {
+            preparedStatements.asMap().remove(statementKey, future);
+        }
+        return future;
+    }
+
+    /**
+     * Return the number of cached projected statements of the key table.
+     */
+    int projections(StatementKey statementKey) {
+        int count = 0;
+        for (StatementKey key : preparedStatements.asMap().keySet()) {
+            if (key.columns != null && key.keyspaceName.equals(statementKey.keyspaceName) && key.tableName.equals(statementKey.tableName)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private CompletableFuture<PreparedStatement> prepareAsync(StatementKey statementKey) {
+        SimpleStatement statement = statementKey.select();
+        log.debug("Preparing query={}", statement.getQuery());
+        CompletableFuture<PreparedStatement> future = cqlSession.prepareAsync(statement).toCompletableFuture();
+        future.whenComplete((preparedStatement, error) -> {
+            if (error != null) {
+                log.warn("Failed to prepare query={}: {}", statement.getQuery(), error);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Prepare again the cached statements of an updated table, so that the reads
+     * return the columns of the new table schema.
+     */
+    public void onTableUpdated(String keyspaceName, String tableName) {
+        for (StatementKey statementKey : preparedStatements.asMap().keySet()) {
+            if (statementKey.keyspaceName.equals(keyspaceName) && statementKey.tableName.equals(tableName)) {
+                log.debug("Table {}.{} updated, preparing again query={}", keyspaceName, tableName, statementKey.select().getQuery());
+                preparedStatements.put(statementKey, prepareAsync(statementKey));
+            }
+        }
+    }
+
     CompletionStage<Tuple2<AsyncResultSet, ConsistencyLevel>> executeWithDowngradeConsistencyRetry(
             CqlSession cqlSession,
             String keyspaceName,
-            SimpleStatement statement,
+            Statement<?> statement,
             List<ConsistencyLevel> consistencyLevels) {
         final ConsistencyLevel cl = consistencyLevels.remove(0);
-        statement.setConsistencyLevel(cl);
+        final Statement<?> clStatement = statement.setConsistencyLevel(cl);
         log.debug("Trying with CL={} statement={}", cl, statement);
         final CompletionStage<Tuple2<AsyncResultSet, ConsistencyLevel>> completionStage =
-                cqlSession.executeAsync(statement).thenApply(rx -> new Tuple2<>(rx, cl));
+                cqlSession.executeAsync(clStatement).thenApply(rx -> new Tuple2<>(rx, cl));
         return completionStage
                 .handle((r, ex) -> {
                     if(ex == null || !(ex instanceof UnavailableException) || consistencyLevels.isEmpty()) {
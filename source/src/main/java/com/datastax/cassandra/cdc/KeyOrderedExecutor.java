@@ -0,0 +1,44 @@
+package com.datastax.cassandra.cdc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Run asynchronous tasks concurrently, except the tasks of the same key that run one after the other
+ * in the submission order, so that a mutation never overtakes a previous mutation of the same primary key.
+ */
+public class KeyOrderedExecutor<K> {
+
+    // completion of the last submitted task of each key having a task in flight
+    private final ConcurrentHashMap<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * Start the task once the previous task of the same key is completed, successfully or not.
+     * The returned stage completes with the task result before the next task of the same key starts.
+     */
+    public <T> CompletableFuture<T> submit(K key, Supplier<? extends CompletionStage<T>> task) {
+        final CompletableFuture<Void> tail = new CompletableFuture<>();
+        final CompletableFuture<Void> previous = tails.put(key, tail);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> start = previous == null ? CompletableFuture.completedFuture(null) : previous;
+        start.thenCompose(v -> task.get()).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(error);
+            }
+            tails.remove(key, tail);
+            tail.complete(null);
+        });
+        return result;
+    }
+
+    /**
+     * Return the number of keys having a task in flight.
+     */
+    public int inflightKeys() {
+        return tails.size();
+    }
+}
@@ -2,18 +2,40 @@ package com.datastax.cassandra.cdc;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Keep MD5 digests to deduplicate Cassandra mutations
+ * Keep MD5 digests to deduplicate Cassandra mutations.
+ *
+ * Digests are kept as 128 bits values in a long array per key, ordered from the oldest to the newest,
+ * and the cache is bounded by its number of keys or by an estimate of its memory usage.
+ *
+ * The digest of a mutation read back but not yet acknowledged downstream is pending: it deduplicates
+ * the following mutations, but it is neither cached nor persisted until committed, so that the mutation
+ * is not dropped as a duplicate when redelivered after a crash. Pending digests are bounded and expire like
+ * the cached ones, so that the digests of mutations never acknowledged nor failed do not leak; an evicted pending
+ * digest only lets a duplicated mutation through.
  */
 public class MutationCache<K> {
 
-    Cache<K, List<String>> mutationCache;
+    /**
+     * Estimated bytes of a cache entry and its key, not including the key characters and the digests.
+     */
+    static final int ENTRY_WEIGHT = 128;
+
+    Cache<K, long[]> mutationCache;
+
+    // digests of the mutations read back and not yet acknowledged, by key
+    final Cache<K, long[]> pendingDigests;
 
     /**
      * Max number of cached digest per cached entry.
@@ -21,37 +43,192 @@ public class MutationCache<K> {
     long maxDigests;
 
     public MutationCache(long maxDigests, long maxCapacity, Duration expireAfter) {
+        this(maxDigests,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(expireAfter.getSeconds(), TimeUnit.SECONDS)
+                        .maximumSize(maxCapacity)
+                        .recordStats()
+                        .build(),
+                Caffeine.newBuilder()
+                        .expireAfterWrite(expireAfter.getSeconds(), TimeUnit.SECONDS)
+                        .maximumSize(maxCapacity)
+                        .build());
+    }
+
+    /**
+     * Build a cache bounded by its estimated memory usage in bytes rather than by its number of keys.
+     */
+    public static <K> MutationCache<K> withMaxMemory(long maxDigests, long maxMemoryBytes, Duration expireAfter) {
+        return new MutationCache<>(maxDigests, Caffeine.newBuilder()
+                .expireAfterWrite(expireAfter.toMillis(), TimeUnit.MILLISECONDS)
+                .maximumWeight(maxMemoryBytes)
+                .<K, long[]>weigher(MutationCache::weight)
+                .recordStats()
+                .build(),
+                Caffeine.newBuilder()
+                .expireAfterWrite(expireAfter.toMillis(), TimeUnit.MILLISECONDS)
+                .maximumWeight(maxMemoryBytes)
+                .<K, long[]>weigher(MutationCache::weight)
+                .build());
+    }
+
+    MutationCache(long maxDigests, Cache<K, long[]> mutationCache, Cache<K, long[]> pendingDigests) {
         this.maxDigests = maxDigests;
-        mutationCache = Caffeine.newBuilder()
-                .expireAfterWrite(expireAfter.getSeconds(), TimeUnit.SECONDS)
-                .maximumSize(maxCapacity)
-                .build();
+        this.mutationCache = mutationCache;
+        this.pendingDigests = pendingDigests;
+    }
+
+    static int weight(Object mutationKey, long[] digests) {
+        int keyWeight = mutationKey instanceof String ? 2 * ((String) mutationKey).length()
+                : mutationKey instanceof ByteBuffer ? ((ByteBuffer) mutationKey).remaining() : 0;
+        return ENTRY_WEIGHT + keyWeight + 8 * digests.length;
     }
 
+    /**
+     * Return the hex encoded digests of the key, from the oldest to the newest.
+     */
     public List<String> getMutationCRCs(K mutationKey) {
-        return mutationCache.getIfPresent(mutationKey);
-    }
-
-    public List<String> addMutationMd5(K mutationKey, String md5Digest) {
-        List<String> crcs = getMutationCRCs(mutationKey);
-        if(crcs == null) {
-            crcs = new ArrayList<>(1);
-            crcs.add(md5Digest);
-        } else {
-            if (!crcs.contains(md5Digest)) {
-                if (crcs.size() >= maxDigests) {
-                    // remove the oldest digest
-                    crcs.remove(0);
-                }
-                crcs.add(md5Digest);
-            }
+        long[] digests = mutationCache.getIfPresent(mutationKey);
+        if (digests == null) {
+            return null;
+        }
+        List<String> crcs = new ArrayList<>(digests.length / 2);
+        for (int i = 0; i < digests.length; i += 2) {
+            crcs.add(String.format("%016x%016x", digests[i], digests[i + 1]));
         }
-        mutationCache.put(mutationKey, crcs);
         return crcs;
     }
 
+    public void addMutationMd5(K mutationKey, String md5Digest) {
+        final long high = high(md5Digest);
+        final long low = low(md5Digest);
+        mutationCache.asMap().compute(mutationKey, (k, digests) -> {
+            if (digests == null) {
+                return new long[] { high, low };
+            }
+            if (indexOf(digests, high, low) >= 0) {
+                return digests;
+            }
+            // copy on write, remove the oldest digest when full
+            int from = digests.length / 2 >= maxDigests ? 2 : 0;
+            long[] newDigests = new long[digests.length - from + 2];
+            System.arraycopy(digests, from, newDigests, 0, digests.length - from);
+            newDigests[newDigests.length - 2] = high;
+            newDigests[newDigests.length - 1] = low;
+            return newDigests;
+        });
+    }
+
+    /**
+     * Add the digest of a mutation read back but not yet acknowledged.
+     */
+    public void addPendingMutationMd5(K mutationKey, String md5Digest) {
+        final long high = high(md5Digest);
+        final long low = low(md5Digest);
+        pendingDigests.asMap().compute(mutationKey, (k, digests) -> {
+            if (digests == null) {
+                return new long[] { high, low };
+            }
+            long[] newDigests = Arrays.copyOf(digests, digests.length + 2);
+            newDigests[digests.length] = high;
+            newDigests[digests.length + 1] = low;
+            return newDigests;
+        });
+    }
+
+    /**
+     * Remove a pending digest, when its mutation is not acknowledged and will be redelivered.
+     */
+    public void removePendingMutationMd5(K mutationKey, String md5Digest) {
+        final long high = high(md5Digest);
+        final long low = low(md5Digest);
+        pendingDigests.asMap().computeIfPresent(mutationKey, (k, digests) -> {
+            int index = indexOf(digests, high, low);
+            if (index < 0) {
+                return digests;
+            }
+            if (digests.length == 2) {
+                return null;
+            }
+            long[] newDigests = new long[digests.length - 2];
+            System.arraycopy(digests, 0, newDigests, 0, 2 * index);
+            System.arraycopy(digests, 2 * index + 2, newDigests, 2 * index, digests.length - 2 * index - 2);
+            return newDigests;
+        });
+    }
+
+    /**
+     * Move a pending digest to the cache once its mutation is acknowledged.
+     */
+    public void commitMutationMd5(K mutationKey, String md5Digest) {
+        addMutationMd5(mutationKey, md5Digest);
+        removePendingMutationMd5(mutationKey, md5Digest);
+    }
+
     public boolean isMutationProcessed(K mutationKey, String md5Digest) {
-        List<String> digests = getMutationCRCs(mutationKey);
-        return digests != null && digests.contains(md5Digest);
+        final long high = high(md5Digest);
+        final long low = low(md5Digest);
+        long[] digests = mutationCache.getIfPresent(mutationKey);
+        if (digests != null && indexOf(digests, high, low) >= 0) {
+            return true;
+        }
+        long[] pending = pendingDigests.getIfPresent(mutationKey);
+        return pending != null && indexOf(pending, high, low) >= 0;
+    }
+
+    /**
+     * Return the hit, miss and eviction statistics of the cache.
+     */
+    public CacheStats stats() {
+        return mutationCache.stats();
+    }
+
+    public long estimatedSize() {
+        return mutationCache.estimatedSize();
+    }
+
+    static int indexOf(long[] digests, long high, long low) {
+        for (int i = 0; i < digests.length; i += 2) {
+            if (digests[i] == high && digests[i + 1] == low) {
+                return i / 2;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the 64 most significant bits of a 32 characters hex digest,
+     * other digests are hashed to 128 bits.
+     */
+    static long high(String digest) {
+        return isHex128(digest)
+                ? parseHex(digest, 0)
+                : UUID.nameUUIDFromBytes(digest.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    static long low(String digest) {
+        return isHex128(digest)
+                ? parseHex(digest, 16)
+                : UUID.nameUUIDFromBytes(digest.getBytes(StandardCharsets.UTF_8)).getLeastSignificantBits();
+    }
+
+    static boolean isHex128(String digest) {
+        if (digest.length() != 32) {
+            return false;
+        }
+        for (int i = 0; i < 32; i++) {
+            if (Character.digit(digest.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long parseHex(String digest, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 16; i++) {
+            value = (value << 4) | Character.digit(digest.charAt(i), 16);
+        }
+        return value;
     }
 }
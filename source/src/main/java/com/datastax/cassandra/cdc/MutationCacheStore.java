@@ -0,0 +1,150 @@
+package com.datastax.cassandra.cdc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Persist the digests of a {@link MutationCache} in a local snapshot file, so that a restarted source
+ * does not read back again the mutations already processed before the restart.
+ *
+ * The snapshot is loaded when opening the store, written periodically by a background thread and
+ * when closing the store. The snapshot size is bounded by the cache capacity, and a snapshot older
+ * than the cache retention is ignored. Loaded digests are retained as if they were just written.
+ */
+@Slf4j
+public class MutationCacheStore<K> implements AutoCloseable {
+    static final int MAGIC = 0xCDCCAC01;
+
+    private final MutationCache<K> mutationCache;
+    private final File file;
+    private final Duration expireAfter;
+    private final Function<K, byte[]> keySerializer;
+    private final ScheduledExecutorService snapshotter;
+
+    /**
+     * @param snapshotPeriod  the period of the snapshots, zero to only write a snapshot when closing the store.
+     * @param expireAfter     the retention of the cache digests.
+     */
+    public MutationCacheStore(MutationCache<K> mutationCache,
+                              File file,
+                              Duration snapshotPeriod,
+                              Duration expireAfter,
+                              Function<K, byte[]> keySerializer,
+                              Function<byte[], K> keyDeserializer) {
+        this.mutationCache = mutationCache;
+        this.file = file;
+        this.expireAfter = expireAfter;
+        this.keySerializer = keySerializer;
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.mkdirs() && !dir.isDirectory()) {
+            log.warn("Failed to create the mutation cache snapshot directory={}", dir);
+        }
+        load(keyDeserializer);
+        this.snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mutation-cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!snapshotPeriod.isZero()) {
+            long periodMs = snapshotPeriod.toMillis();
+            snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Load the snapshot digests in the cache, and return the number of loaded keys.
+     */
+    int load(Function<byte[], K> keyDeserializer) {
+        if (!file.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                log.warn("Ignoring the mutation cache snapshot file={}, unknown format", file);
+                return 0;
+            }
+            long snapshotTime = in.readLong();
+            if (snapshotTime < System.currentTimeMillis() - expireAfter.toMillis()) {
+                log.info("Ignoring the expired mutation cache snapshot file={}", file);
+                return 0;
+            }
+            int keyLength;
+            while ((keyLength = in.readInt()) >= 0) {
+                byte[] key = new byte[keyLength];
+                in.readFully(key);
+                long[] digests = new long[in.readUnsignedShort() * 2];
+                for (int i = 0; i < digests.length; i++) {
+                    digests[i] = in.readLong();
+                }
+                mutationCache.mutationCache.put(keyDeserializer.apply(key), digests);
+                count++;
+            }
+            log.info("Loaded {} keys from the mutation cache snapshot file={}", count, file);
+        } catch (EOFException e) {
+            log.warn("Truncated mutation cache snapshot file={}, loaded {} keys", file, count);
+        } catch (Exception e) {
+            log.warn("Failed to load the mutation cache snapshot file=" + file, e);
+        }
+        return count;
+    }
+
+    /**
+     * Write the cache digests to a temporary file, atomically renamed to the snapshot file.
+     */
+    synchronized void snapshot() throws IOException {
+        long start = System.currentTimeMillis();
+        File tmpFile = new File(file.getPath() + ".tmp");
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(start);
+            for (Map.Entry<K, long[]> entry : mutationCache.mutationCache.asMap().entrySet()) {
+                byte[] key = keySerializer.apply(entry.getKey());
+                long[] digests = entry.getValue();
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeShort(digests.length / 2);
+                for (long digest : digests) {
+                    out.writeLong(digest);
+                }
+                count++;
+            }
+            out.writeInt(-1);
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Saved {} keys in the mutation cache snapshot file={} in {}ms",
+                count, file, System.currentTimeMillis() - start);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            log.warn("Failed to save the mutation cache snapshot file=" + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        snapshotter.shutdownNow();
+        snapshotQuietly();
+    }
+}
@@ -0,0 +1,225 @@
+package com.datastax.cassandra.cdc;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Row built from the cell values shipped in a mutation event by a producer in payload mode,
+ * allowing the source to emit an INSERT without reading it back from Cassandra.
+ *
+ * The cells are serialized by the Cassandra type serializers, which are the native protocol
+ * serialization of the non-collection types, and decoded on demand by the driver codecs.
+ */
+public class MutationRow implements Row {
+
+    final Definitions columnDefinitions;
+    final ByteBuffer[] values;
+
+    MutationRow(Definitions columnDefinitions, ByteBuffer[] values) {
+        this.columnDefinitions = columnDefinitions;
+        this.values = values;
+    }
+
+    /**
+     * Return the row of an INSERT covering all the regular and static columns of the table,
+     * or null if the event does not carry the values of all these columns.
+     */
+    public static MutationRow of(TableMetadata tableMetadata, ColumnIndex columnIndex,
+                                 Long columnsVersion, int[] columnIndexes, byte[][] columnValues) {
+        if (columnValues == null || columnIndexes == null || columnValues.length != columnIndexes.length) {
+            return null;
+        }
+        String[] columns = columnIndex.names(columnsVersion, columnIndexes);
+        if (columns == null || columns.length != columnIndex.size()) {
+            return null;
+        }
+        ColumnDefinition[] definitions = new ColumnDefinition[columns.length];
+        ByteBuffer[] values = new ByteBuffer[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Optional<ColumnMetadata> column = tableMetadata.getColumn(CqlIdentifier.fromInternal(columns[i]));
+            if (!column.isPresent()) {
+                return null;
+            }
+            definitions[i] = new Definition(column.get());
+            values[i] = columnValues[i] == null ? null : ByteBuffer.wrap(columnValues[i]);
+        }
+        return new MutationRow(new Definitions(Arrays.asList(definitions)), values);
+    }
+
+    @Override
+    public ColumnDefinitions getColumnDefinitions() {
+        return columnDefinitions;
+    }
+
+    @Override
+    public ByteBuffer getBytesUnsafe(int i) {
+        return values[i] == null ? null : values[i].duplicate();
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public DataType getType(int i) {
+        return columnDefinitions.get(i).getType();
+    }
+
+    @Override
+    public int firstIndexOf(String name) {
+        return columnDefinitions.firstIndexOf(name);
+    }
+
+    @Override
+    public DataType getType(String name) {
+        return getType(firstIndexOf(name));
+    }
+
+    @Override
+    public int firstIndexOf(CqlIdentifier id) {
+        return columnDefinitions.firstIndexOf(id);
+    }
+
+    @Override
+    public DataType getType(CqlIdentifier id) {
+        return getType(firstIndexOf(id));
+    }
+
+    @Override
+    public CodecRegistry codecRegistry() {
+        return CodecRegistry.DEFAULT;
+    }
+
+    @Override
+    public ProtocolVersion protocolVersion() {
+        return ProtocolVersion.DEFAULT;
+    }
+
+    @Override
+    public boolean isDetached() {
+        return false;
+    }
+
+    @Override
+    public void attach(AttachmentPoint attachmentPoint) {
+    }
+
+    @Override
+    public String toString() {
+        return "MutationRow" + columnDefinitions.definitions;
+    }
+
+    static class Definition implements ColumnDefinition {
+        final ColumnMetadata column;
+
+        Definition(ColumnMetadata column) {
+            this.column = column;
+        }
+
+        @Override
+        public CqlIdentifier getKeyspace() {
+            return column.getKeyspace();
+        }
+
+        @Override
+        public CqlIdentifier getTable() {
+            return column.getParent();
+        }
+
+        @Override
+        public CqlIdentifier getName() {
+            return column.getName();
+        }
+
+        @Override
+        public DataType getType() {
+            return column.getType();
+        }
+
+        @Override
+        public boolean isDetached() {
+            return false;
+        }
+
+        @Override
+        public void attach(AttachmentPoint attachmentPoint) {
+        }
+
+        @Override
+        public String toString() {
+            return column.getName().asInternal();
+        }
+    }
+
+    static class Definitions implements ColumnDefinitions {
+        final List<ColumnDefinition> definitions;
+
+        Definitions(List<ColumnDefinition> definitions) {
+            this.definitions = definitions;
+        }
+
+        @Override
+        public int size() {
+            return definitions.size();
+        }
+
+        @Override
+        public ColumnDefinition get(int i) {
+            return definitions.get(i);
+        }
+
+        @Override
+        public boolean contains(String name) {
+            return firstIndexOf(name) >= 0;
+        }
+
+        @Override
+        public boolean contains(CqlIdentifier id) {
+            return firstIndexOf(id) >= 0;
+        }
+
+        @Override
+        public int firstIndexOf(String name) {
+            return firstIndexOf(CqlIdentifier.fromCql(name));
+        }
+
+        @Override
+        public int firstIndexOf(CqlIdentifier id) {
+            for (int i = 0; i < definitions.size(); i++) {
+                if (definitions.get(i).getName().equals(id)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Iterator<ColumnDefinition> iterator() {
+            return definitions.iterator();
+        }
+
+        @Override
+        public boolean isDetached() {
+            return false;
+        }
+
+        @Override
+        public void attach(AttachmentPoint attachmentPoint) {
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.datastax.cassandra.cdc;
+
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CassandraClientTests {
+
+    @Test
+    public final void testStatementKey() {
+        CassandraClient.StatementKey all = new CassandraClient.StatementKey("ks1", "table1",
+                Arrays.asList("a", "b"), null);
+        assertEquals("SELECT * FROM ks1.table1 WHERE a=? AND b=?", all.select().getQuery());
+
+        CassandraClient.StatementKey projected = new CassandraClient.StatementKey("ks1", "table1",
+                Arrays.asList("a", "b"), Arrays.asList("c", "D"));
+        assertEquals("SELECT a,b,c,\"D\" FROM ks1.table1 WHERE a=? AND b=?", projected.select().getQuery());
+
+        assertEquals(projected, new CassandraClient.StatementKey("ks1", "table1",
+                Arrays.asList("a", "b"), Arrays.asList("c", "D")));
+        assertEquals(projected.hashCode(), new CassandraClient.StatementKey("ks1", "table1",
+                Arrays.asList("a", "b"), Arrays.asList("c", "D")).hashCode());
+        assertNotEquals(all, projected);
+        // the bind order is part of the key
+        assertNotEquals(all, new CassandraClient.StatementKey("ks1", "table1", Arrays.asList("b", "a"), null));
+    }
+
+    @Test
+    public final void testProjectionLimit() {
+        CassandraClient client = new CassandraClient(null);
+        CompletableFuture<PreparedStatement> selectAll = new CompletableFuture<>();
+        client.preparedStatements.put(new CassandraClient.StatementKey("ks1", "table1",
+                Collections.singletonList("a"), null), selectAll);
+        for (int i = 0; i < CassandraClient.MAX_PROJECTIONS_PER_TABLE; i++) {
+            client.preparedStatements.put(new CassandraClient.StatementKey("ks1", "table1",
+                    Collections.singletonList("a"), Collections.singletonList("c" + i)), new CompletableFuture<>());
+        }
+        CassandraClient.StatementKey projected = new CassandraClient.StatementKey("ks1", "table1",
+                Collections.singletonList("a"), Collections.singletonList("d"));
+        assertEquals(CassandraClient.MAX_PROJECTIONS_PER_TABLE, client.projections(projected));
+
+        // beyond the limit, the table falls back to the select of all the columns
+        assertSame(selectAll, client.prepare(projected));
+        assertEquals(CassandraClient.MAX_PROJECTIONS_PER_TABLE + 1, client.preparedStatements.estimatedSize());
+        // other tables are not limited
+        assertEquals(0, client.projections(new CassandraClient.StatementKey("ks1", "table2",
+                Collections.singletonList("a"), Collections.singletonList("d"))));
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datastax.cassandra.cdc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ColumnIndexTests {
+
+    @Test
+    public final void testIndexes() throws Exception {
+        ColumnIndex producerIndex = new ColumnIndex(Arrays.asList("c", "a", "b"));
+        ColumnIndex sourceIndex = new ColumnIndex(Arrays.asList("b", "c", "a"));
+        assertEquals(producerIndex.version(), sourceIndex.version());
+        assertEquals(-1, producerIndex.index("d"));
+
+        int[] indexes = new int[] { producerIndex.index("c"), producerIndex.index("a") };
+        assertArrayEquals(new String[] { "c", "a" }, sourceIndex.names(producerIndex.version(), indexes));
+    }
+
+    @Test
+    public final void testVersionMismatch() throws Exception {
+        ColumnIndex producerIndex = new ColumnIndex(Arrays.asList("a", "b"));
+        ColumnIndex sourceIndex = new ColumnIndex(Arrays.asList("a", "b", "c"));
+        assertNull(sourceIndex.names(producerIndex.version(), new int[] { 0 }));
+        assertNull(sourceIndex.names(sourceIndex.version(), new int[] { 3 }));
+        assertNull(sourceIndex.names(sourceIndex.version(), null));
+        assertNull(sourceIndex.names(null, new int[] { 0 }));
+    }
+
+    @Test
+    public final void testNoStringHashCollision() throws Exception {
+        // "Aa" and "BB" have the same String hashCode
+        ColumnIndex producerIndex = new ColumnIndex(Arrays.asList("Aa", "x"));
+        ColumnIndex sourceIndex = new ColumnIndex(Arrays.asList("BB", "x"));
+        assertEquals(String.join(",", "Aa", "x").hashCode(), String.join(",", "BB", "x").hashCode());
+        assertNotEquals(producerIndex.version(), sourceIndex.version());
+        assertNull(sourceIndex.names(producerIndex.version(), new int[] { 0 }));
+
+        // names are length-prefixed, so moving the separator changes the version
+        assertNotEquals(new ColumnIndex(Arrays.asList("a,b", "c")).version(), new ColumnIndex(Arrays.asList("a", "b,c")).version());
+    }
+}
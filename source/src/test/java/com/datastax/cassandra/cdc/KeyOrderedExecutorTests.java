@@ -0,0 +1,63 @@
+package com.datastax.cassandra.cdc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeyOrderedExecutorTests {
+
+    @Test
+    public final void testKeyOrder() throws Exception {
+        KeyOrderedExecutor<String> executor = new KeyOrderedExecutor<>();
+        List<String> completed = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<String> a1 = new CompletableFuture<>();
+        CompletableFuture<String> a2 = new CompletableFuture<>();
+        CompletableFuture<String> b1 = new CompletableFuture<>();
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<String> ra1 = executor.submit("a", () -> { started.add("a1"); return a1; });
+        CompletableFuture<String> ra2 = executor.submit("a", () -> { started.add("a2"); return a2; });
+        CompletableFuture<String> rb1 = executor.submit("b", () -> { started.add("b1"); return b1; });
+        ra1.thenAccept(completed::add);
+        ra2.thenAccept(completed::add);
+        rb1.thenAccept(completed::add);
+
+        // other keys run concurrently, the same key waits for its previous task
+        assertEquals(Arrays.asList("a1", "b1"), started);
+        assertEquals(2, executor.inflightKeys());
+
+        // a2 completes first but does not overtake a1
+        a2.complete("a2");
+        b1.complete("b1");
+        assertFalse(ra2.isDone());
+        a1.complete("a1");
+        assertEquals(Arrays.asList("a1", "b1", "a2"), started);
+        assertEquals(Arrays.asList("b1", "a1", "a2"), completed);
+        assertEquals(0, executor.inflightKeys());
+    }
+
+    @Test
+    public final void testFailure() throws Exception {
+        KeyOrderedExecutor<String> executor = new KeyOrderedExecutor<>();
+        CompletableFuture<String> r1 = executor.submit("a", () -> {
+            throw new IllegalStateException("read failure");
+        });
+        CompletableFuture<String> r2 = executor.submit("a", () -> CompletableFuture.completedFuture("a2"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, r1::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        // a failed task does not block the next tasks of the key
+        assertEquals("a2", r2.get());
+        assertEquals(0, executor.inflightKeys());
+    }
+}
@@ -0,0 +1,84 @@
+package com.datastax.cassandra.cdc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MutationCacheStoreTests {
+
+    static MutationCacheStore<String> store(MutationCache<String> mutationCache, File file, Duration expireAfter) {
+        return new MutationCacheStore<>(mutationCache, file, Duration.ZERO, expireAfter,
+                key -> key.getBytes(StandardCharsets.UTF_8),
+                bytes -> new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public final void testReload() throws Exception {
+        File file = new File(Files.createTempDirectory("cache").toFile(), "snapshots/mutations.cache");
+        String digest1 = "0123456789abcdef0123456789abcdef";
+        String digest2 = "fedcba9876543210fedcba9876543210";
+
+        MutationCache<String> mutationCache = MutationCache.withMaxMemory(3, 1024 * 1024, Duration.ofHours(1));
+        try (MutationCacheStore<String> store = store(mutationCache, file, Duration.ofHours(1))) {
+            mutationCache.addMutationMd5("mutation1", digest1);
+            mutationCache.addMutationMd5("mutation1", digest2);
+            mutationCache.addMutationMd5("mutation2", digest2);
+        }
+        assertTrue(file.exists());
+
+        MutationCache<String> reloadedCache = MutationCache.withMaxMemory(3, 1024 * 1024, Duration.ofHours(1));
+        try (MutationCacheStore<String> store = store(reloadedCache, file, Duration.ofHours(1))) {
+            assertEquals(Arrays.asList(digest1, digest2), reloadedCache.getMutationCRCs("mutation1"));
+            assertTrue(reloadedCache.isMutationProcessed("mutation2", digest2));
+            assertFalse(reloadedCache.isMutationProcessed("mutation2", digest1));
+        }
+    }
+
+    @Test
+    public final void testPendingDigestsNotPersisted() throws Exception {
+        File file = new File(Files.createTempDirectory("cache").toFile(), "mutations.cache");
+        String digest1 = "0123456789abcdef0123456789abcdef";
+        String digest2 = "fedcba9876543210fedcba9876543210";
+
+        MutationCache<String> mutationCache = MutationCache.withMaxMemory(3, 1024 * 1024, Duration.ofHours(1));
+        try (MutationCacheStore<String> store = store(mutationCache, file, Duration.ofHours(1))) {
+            // mutation1 is acknowledged, mutation2 is read back but the source crashes before its acknowledgement
+            mutationCache.addPendingMutationMd5("mutation1", digest1);
+            mutationCache.addPendingMutationMd5("mutation2", digest2);
+            mutationCache.commitMutationMd5("mutation1", digest1);
+            // a duplicate of a pending mutation is dropped until the crash
+            assertTrue(mutationCache.isMutationProcessed("mutation2", digest2));
+            store.snapshot();
+        }
+
+        // the redelivered mutation2 is not dropped as a duplicate after the restart
+        MutationCache<String> reloadedCache = MutationCache.withMaxMemory(3, 1024 * 1024, Duration.ofHours(1));
+        try (MutationCacheStore<String> store = store(reloadedCache, file, Duration.ofHours(1))) {
+            assertTrue(reloadedCache.isMutationProcessed("mutation1", digest1));
+            assertFalse(reloadedCache.isMutationProcessed("mutation2", digest2));
+        }
+    }
+
+    @Test
+    public final void testExpiredSnapshot() throws Exception {
+        File file = new File(Files.createTempDirectory("cache").toFile(), "mutations.cache");
+        MutationCache<String> mutationCache = new MutationCache<>(3, 10, Duration.ofHours(1));
+        try (MutationCacheStore<String> store = store(mutationCache, file, Duration.ofMillis(100))) {
+            mutationCache.addMutationMd5("mutation1", "digest1");
+        }
+        Thread.sleep(200);
+
+        MutationCache<String> reloadedCache = new MutationCache<>(3, 10, Duration.ofHours(1));
+        try (MutationCacheStore<String> store = store(reloadedCache, file, Duration.ofMillis(100))) {
+            assertEquals(0L, reloadedCache.estimatedSize());
+        }
+    }
+}
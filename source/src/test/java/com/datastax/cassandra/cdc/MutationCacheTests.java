@@ -20,9 +20,14 @@ package com.datastax.cassandra.cdc;
 
 import org.junit.jupiter.api.Test;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class MutationCacheTests {
 
@@ -54,4 +59,71 @@ public class MutationCacheTests {
         assertEquals(false, mutationCache.isMutationProcessed("mutation1","digest1"));
     }
 
+    @Test
+    public final void testDigests() throws Exception {
+        MutationCache<String> mutationCache = new MutationCache<>(2, 10, Duration.ofHours(1));
+        String digest1 = "0123456789abcdef0123456789abcdef";
+        String digest2 = "fedcba9876543210fedcba9876543210";
+        String digest3 = "ffffffffffffffff0000000000000001";
+        mutationCache.addMutationMd5("mutation1", digest1);
+        mutationCache.addMutationMd5("mutation1", digest2);
+        mutationCache.addMutationMd5("mutation1", digest2);
+        assertEquals(Arrays.asList(digest1, digest2), mutationCache.getMutationCRCs("mutation1"));
+        mutationCache.addMutationMd5("mutation1", digest3);
+        assertEquals(Arrays.asList(digest2, digest3), mutationCache.getMutationCRCs("mutation1"));
+        assertEquals(false, mutationCache.isMutationProcessed("mutation1", digest1));
+        assertEquals(true, mutationCache.isMutationProcessed("mutation1", digest3.toUpperCase(Locale.ROOT)));
+
+        assertEquals(false, mutationCache.isMutationProcessed("mutation2", digest1));
+        CacheStats stats = mutationCache.stats();
+        assertEquals(4L, stats.hitCount());
+        assertEquals(1L, stats.missCount());
+    }
+
+    @Test
+    public final void testPendingDigests() throws Exception {
+        MutationCache<String> mutationCache = new MutationCache<>(3, 10, Duration.ofHours(1));
+        mutationCache.addPendingMutationMd5("mutation1", "digest1");
+        mutationCache.addPendingMutationMd5("mutation1", "digest2");
+        assertEquals(true, mutationCache.isMutationProcessed("mutation1", "digest1"));
+        assertEquals(0L, mutationCache.estimatedSize());
+
+        // a not acknowledged mutation is redelivered
+        mutationCache.removePendingMutationMd5("mutation1", "digest1");
+        assertEquals(false, mutationCache.isMutationProcessed("mutation1", "digest1"));
+        assertEquals(true, mutationCache.isMutationProcessed("mutation1", "digest2"));
+
+        mutationCache.commitMutationMd5("mutation1", "digest2");
+        assertEquals(true, mutationCache.isMutationProcessed("mutation1", "digest2"));
+        assertEquals(1, mutationCache.getMutationCRCs("mutation1").size());
+        assertTrue(mutationCache.pendingDigests.asMap().isEmpty());
+    }
+
+    @Test
+    public final void testPendingDigestsBounded() throws Exception {
+        MutationCache<String> mutationCache = new MutationCache<>(3, 10, Duration.ofSeconds(1));
+        // digests of mutations never acknowledged nor failed
+        for (int i = 0; i < 100; i++) {
+            mutationCache.addPendingMutationMd5("mutation" + i, "digest" + i);
+        }
+        mutationCache.pendingDigests.cleanUp();
+        assertTrue(mutationCache.pendingDigests.estimatedSize() <= 10);
+
+        mutationCache.addPendingMutationMd5("mutation1", "digest1");
+        assertEquals(true, mutationCache.isMutationProcessed("mutation1", "digest1"));
+        Thread.sleep(2000);
+        assertEquals(false, mutationCache.isMutationProcessed("mutation1", "digest1"));
+    }
+
+    @Test
+    public final void testMaxMemory() throws Exception {
+        MutationCache<String> mutationCache = MutationCache.withMaxMemory(3, 100 * 1024, Duration.ofHours(1));
+        for (int i = 0; i < 10000; i++) {
+            mutationCache.addMutationMd5("mutation" + i, "digest" + i);
+        }
+        mutationCache.mutationCache.cleanUp();
+        assertTrue(mutationCache.estimatedSize() < 1000);
+        assertTrue(mutationCache.stats().evictionCount() > 9000);
+        assertEquals(true, mutationCache.isMutationProcessed("mutation9999", "digest9999"));
+    }
 }
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datastax.cassandra.cdc;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultColumnMetadata;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultTableMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MutationRowTests {
+
+    static final CqlIdentifier KS = CqlIdentifier.fromInternal("ks");
+    static final CqlIdentifier TABLE = CqlIdentifier.fromInternal("table1");
+
+    static TableMetadata tableMetadata() {
+        ColumnMetadata id = new DefaultColumnMetadata(KS, TABLE, CqlIdentifier.fromInternal("id"), DataTypes.TEXT, false);
+        ColumnMetadata a = new DefaultColumnMetadata(KS, TABLE, CqlIdentifier.fromInternal("a"), DataTypes.INT, false);
+        ColumnMetadata b = new DefaultColumnMetadata(KS, TABLE, CqlIdentifier.fromInternal("b"), DataTypes.TEXT, false);
+        Map<CqlIdentifier, ColumnMetadata> columns = new LinkedHashMap<>();
+        for (ColumnMetadata cm : Arrays.asList(id, a, b)) {
+            columns.put(cm.getName(), cm);
+        }
+        return new DefaultTableMetadata(KS, TABLE, UUID.randomUUID(), false, false,
+                Collections.singletonList(id), Collections.emptyMap(), columns, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    static byte[] bytes(ByteBuffer bb) {
+        byte[] bytes = new byte[bb.remaining()];
+        bb.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public final void testFullInsert() throws Exception {
+        TableMetadata tm = tableMetadata();
+        ColumnIndex columnIndex = new ColumnIndex(Arrays.asList("a", "b"));
+        MutationRow row = MutationRow.of(tm, columnIndex, columnIndex.version(),
+                new int[] { columnIndex.index("b"), columnIndex.index("a") },
+                new byte[][] {
+                        bytes(TypeCodecs.TEXT.encode("hello", ProtocolVersion.DEFAULT)),
+                        bytes(TypeCodecs.INT.encode(42, ProtocolVersion.DEFAULT)) });
+        assertEquals(2, row.size());
+        assertEquals(42, row.getInt("a"));
+        assertEquals("hello", row.getString("b"));
+        assertTrue(row.getColumnDefinitions().contains("a"));
+        assertFalse(row.getColumnDefinitions().contains("id"));
+    }
+
+    @Test
+    public final void testPartialInsert() throws Exception {
+        TableMetadata tm = tableMetadata();
+        ColumnIndex columnIndex = new ColumnIndex(Arrays.asList("a", "b"));
+        byte[] a = bytes(TypeCodecs.INT.encode(42, ProtocolVersion.DEFAULT));
+        assertNull(MutationRow.of(tm, columnIndex, columnIndex.version(), new int[] { columnIndex.index("a") }, new byte[][] { a }));
+        assertNull(MutationRow.of(tm, columnIndex, columnIndex.version(), new int[] { 0, 1 }, null));
+        assertNull(MutationRow.of(tm, columnIndex, columnIndex.version() + 1, new int[] { 0, 1 }, new byte[][] { a, a }));
+    }
+}